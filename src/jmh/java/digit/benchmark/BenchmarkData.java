@@ -0,0 +1,70 @@
+package digit.benchmark;
+
+import digit.web.models.Address;
+import digit.web.models.Boundary;
+import digit.web.models.GeoLocation;
+import digit.web.models.PGREntity;
+import digit.web.models.Service;
+import org.egov.common.contract.models.AuditDetails;
+import org.egov.common.contract.models.Workflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synthetic complaints shaped like a search page, shared by the benchmarks
+ */
+public class BenchmarkData {
+
+    public static final String TENANT_ID = "pb.amritsar";
+
+    public static final long BASE_TIME = 1731900000000L;
+
+    public static final String ADDITIONAL_DETAIL = "{\"department\":\"Streetlights\",\"reopenCount\":1}";
+
+    public static List<PGREntity> getPgrEntities(int count) {
+        List<PGREntity> pgrEntities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Workflow workflow = Workflow.builder().action("ASSIGN")
+                    .assignes(Collections.singletonList("employee-" + (i % 10)))
+                    .comments("Assigned to the field team").build();
+            pgrEntities.add(PGREntity.builder().service(getService(i)).workflow(workflow).build());
+        }
+        return pgrEntities;
+    }
+
+    public static Service getService(int i) {
+        Address address = Address.builder()
+                .tenantId(TENANT_ID)
+                .id("address-" + i)
+                .doorNo(String.valueOf(i))
+                .street("Mall Road")
+                .city("Amritsar")
+                .pincode("143001")
+                .locality(Boundary.builder().code("SUN" + (i % 20)).build())
+                .geoLocation(GeoLocation.builder().latitude(31.63).longitude(74.87).build())
+                .build();
+
+        // Every tenth complaint shares its created time with the previous one
+        long createdTime = BASE_TIME + (i - (i % 10 == 9 ? 1 : 0)) * 1000L;
+        AuditDetails auditDetails = AuditDetails.builder().createdBy("citizen-" + i).createdTime(createdTime)
+                .lastModifiedBy("employee-" + (i % 10)).lastModifiedTime(createdTime + 60000L).build();
+
+        return Service.builder()
+                .id("service-" + i)
+                .tenantId(TENANT_ID)
+                .serviceCode("StreetLightNotWorking")
+                .serviceRequestId("PG-PGR-2024-11-18-" + String.format("%06d", i))
+                .description("Street light not working near house " + i)
+                .accountId("citizen-" + i)
+                .applicationStatus("PENDINGATLME")
+                .source("web")
+                .address(address)
+                .auditDetails(auditDetails)
+                .slaDeadline(createdTime + TimeUnit.HOURS.toMillis(336))
+                .build();
+    }
+
+}
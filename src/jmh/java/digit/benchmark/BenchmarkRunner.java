@@ -0,0 +1,30 @@
+package digit.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the PGR benchmarks with the GC profiler, so every result reports the
+ * allocation rate (gc.alloc.rate.norm is bytes per operation) next to the
+ * throughput. Results are also written to target/jmh-result.json for comparing
+ * runs. Arguments are passed to JMH, e.g. a benchmark name pattern or -p shape=cursor.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PGRRowMapper"
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,44 @@
+package digit.repository;
+
+import digit.benchmark.BenchmarkData;
+import digit.web.models.PGREntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-sorts an enriched 200 entity page by created time, as done at the end of
+ * every search. The page arrives in ascending order so every entity moves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceWrapperSortBenchmark {
+
+    private List<PGREntity> pgrEntities;
+
+    @Setup
+    public void setUp() {
+        pgrEntities = Collections.unmodifiableList(BenchmarkData.getPgrEntities(200));
+    }
+
+    @Benchmark
+    public List<PGREntity> sortByCreatedTime() {
+        return PGRRepository.sortByCreatedTime(pgrEntities);
+    }
+
+}
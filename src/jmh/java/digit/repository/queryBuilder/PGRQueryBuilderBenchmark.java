@@ -0,0 +1,93 @@
+package digit.repository.queryBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digit.config.Configuration;
+import digit.config.ErrorConstants;
+import digit.util.SearchCursorUtil;
+import digit.web.models.RequestSearchCriteria;
+import digit.web.models.Service;
+import org.egov.common.contract.models.AuditDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the search query for the criteria shapes the inbox and citizen apps send
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PGRQueryBuilderBenchmark {
+
+    @Param({"tenant", "inbox", "citizen", "dateRange", "sparse", "cursor"})
+    private String shape;
+
+    private PGRQueryBuilder queryBuilder;
+
+    private RequestSearchCriteria criteria;
+
+    @Setup
+    public void setUp() {
+        SearchCursorUtil cursorUtil = new SearchCursorUtil();
+        ReflectionTestUtils.setField(cursorUtil, "mapper", new ObjectMapper());
+
+        queryBuilder = new PGRQueryBuilder();
+        ReflectionTestUtils.setField(queryBuilder, "config", new Configuration());
+        ReflectionTestUtils.setField(queryBuilder, "errorConstants", new ErrorConstants());
+        ReflectionTestUtils.setField(queryBuilder, "cursorUtil", cursorUtil);
+
+        RequestSearchCriteria.RequestSearchCriteriaBuilder builder = RequestSearchCriteria.builder()
+                .tenantId("pb.amritsar").isPlainSearch(false).limit(100).offset(0);
+
+        switch (shape) {
+            case "inbox":
+                criteria = builder.applicationStatus(Set.of("PENDINGFORASSIGNMENT", "PENDINGATLME"))
+                        .serviceCode(Set.of("StreetLightNotWorking", "GarbageNeedsTobeCleared"))
+                        .locality(Set.of("SUN01", "SUN02", "SUN03")).build();
+                break;
+            case "citizen":
+                criteria = builder.userIds(Collections.singleton("citizen-1")).build();
+                break;
+            case "dateRange":
+                criteria = builder.fromDate(0L).toDate(System.currentTimeMillis())
+                        .sortBy(RequestSearchCriteria.SortBy.applicationStatus).build();
+                break;
+            case "sparse":
+                criteria = builder.fields(Set.of("serviceCode", "applicationStatus", "locality")).build();
+                break;
+            case "cursor":
+                criteria = builder.build();
+                Service last = Service.builder().id("service-1")
+                        .auditDetails(AuditDetails.builder().createdTime(System.currentTimeMillis()).build()).build();
+                criteria.setCursor(cursorUtil.encode(criteria, last));
+                break;
+            default:
+                criteria = builder.build();
+        }
+    }
+
+    @Benchmark
+    public String getPGRSearchQuery() {
+        List<Object> preparedStmtList = new ArrayList<>();
+        return queryBuilder.getPGRSearchQuery(criteria, preparedStmtList);
+    }
+
+}
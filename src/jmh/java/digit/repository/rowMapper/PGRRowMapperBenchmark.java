@@ -0,0 +1,133 @@
+package digit.repository.rowMapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digit.benchmark.BenchmarkData;
+import digit.web.models.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.postgresql.util.PGobject;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps a 200 row search page, as returned by the full select and by a sparse
+ * select of serviceCode, applicationStatus and locality
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PGRRowMapperBenchmark {
+
+    private static final int ROWS = 200;
+
+    @Param({"full", "sparse"})
+    private String columns;
+
+    private PGRRowMapper rowMapper;
+
+    private SyntheticResultSet resultSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        rowMapper = new PGRRowMapper();
+        ReflectionTestUtils.setField(rowMapper, "mapper", new ObjectMapper());
+
+        List<Map<String, Object>> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++)
+            rows.add("sparse".equals(columns) ? getSparseRow(i) : getFullRow(i));
+        resultSet = new SyntheticResultSet(new ArrayList<>(rows.get(0).keySet()), rows);
+    }
+
+    @Benchmark
+    public List<Service> extractData() throws SQLException {
+        return rowMapper.extractData(resultSet.open());
+    }
+
+    private Map<String, Object> getFullRow(int i) throws SQLException {
+        Service service = BenchmarkData.getService(i);
+        Map<String, Object> row = new LinkedHashMap<>();
+
+        // ser.*
+        row.put("servicecode", service.getServiceCode());
+        row.put("servicerequestid", service.getServiceRequestId());
+        row.put("description", service.getDescription());
+        row.put("accountid", service.getAccountId());
+        row.put("applicationstatus", service.getApplicationStatus());
+        row.put("rating", null);
+        row.put("source", service.getSource());
+        row.put("sla_deadline", service.getSlaDeadline());
+
+        // ads.*
+        row.put("parentid", service.getId());
+        row.put("doorno", service.getAddress().getDoorNo());
+        row.put("plotno", null);
+        row.put("buildingname", null);
+        row.put("street", service.getAddress().getStreet());
+        row.put("landmark", null);
+        row.put("city", service.getAddress().getCity());
+        row.put("pincode", service.getAddress().getPincode());
+        row.put("locality", service.getAddress().getLocality().getCode());
+        row.put("district", null);
+        row.put("region", null);
+        row.put("state", null);
+        row.put("country", null);
+        row.put("latitude", service.getAddress().getGeoLocation().getLatitude());
+        row.put("longitude", service.getAddress().getGeoLocation().getLongitude());
+
+        // Aliases
+        row.put("ser_id", service.getId());
+        row.put("ads_id", service.getAddress().getId());
+        row.put("ser_tenantid", service.getTenantId());
+        row.put("ads_tenantid", service.getAddress().getTenantId());
+        row.put("ser_additionaldetails", getJson(BenchmarkData.ADDITIONAL_DETAIL));
+        row.put("ads_additionaldetails", null);
+        row.put("ser_createdby", service.getAuditDetails().getCreatedBy());
+        row.put("ser_createdtime", service.getAuditDetails().getCreatedTime());
+        row.put("ser_lastmodifiedby", service.getAuditDetails().getLastModifiedBy());
+        row.put("ser_lastmodifiedtime", service.getAuditDetails().getLastModifiedTime());
+        row.put("ads_createdby", service.getAuditDetails().getCreatedBy());
+        row.put("ads_createdtime", service.getAuditDetails().getCreatedTime());
+        row.put("ads_lastmodifiedby", service.getAuditDetails().getLastModifiedBy());
+        row.put("ads_lastmodifiedtime", service.getAuditDetails().getLastModifiedTime());
+        return row;
+    }
+
+    private Map<String, Object> getSparseRow(int i) {
+        Service service = BenchmarkData.getService(i);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("ser_id", service.getId());
+        row.put("ser_tenantid", service.getTenantId());
+        row.put("servicerequestid", service.getServiceRequestId());
+        row.put("ser_createdtime", service.getAuditDetails().getCreatedTime());
+        row.put("servicecode", service.getServiceCode());
+        row.put("applicationstatus", service.getApplicationStatus());
+        row.put("locality", service.getAddress().getLocality().getCode());
+        return row;
+    }
+
+    private PGobject getJson(String value) throws SQLException {
+        PGobject json = new PGobject();
+        json.setType("jsonb");
+        json.setValue(value);
+        return json;
+    }
+
+}
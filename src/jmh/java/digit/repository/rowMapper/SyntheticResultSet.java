@@ -0,0 +1,79 @@
+package digit.repository.rowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory ResultSet over prepared rows, implementing only the calls the row
+ * mapper makes, so the benchmark measures the mapping and not a driver
+ */
+public class SyntheticResultSet {
+
+    private final List<String> labels;
+
+    private final List<Map<String, Object>> rows;
+
+    /**
+     * @param labels The column labels, in select order
+     * @param rows   The rows, keyed by lower case column label
+     */
+    public SyntheticResultSet(List<String> labels, List<Map<String, Object>> rows) {
+        this.labels = new ArrayList<>(labels);
+        this.rows = rows;
+    }
+
+    /**
+     * @return A new ResultSet positioned before the first row
+     */
+    public ResultSet open() {
+        int[] cursor = {-1};
+
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return labels.size();
+                        case "getColumnLabel":
+                        case "getColumnName":
+                            return labels.get((Integer) args[0] - 1);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor[0] < rows.size();
+                        case "getMetaData":
+                            return metaData;
+                        case "getString":
+                            Object value = get(cursor[0], args[0]);
+                            return value == null ? null : value.toString();
+                        case "getLong":
+                            Object number = get(cursor[0], args[0]);
+                            return number == null ? 0L : ((Number) number).longValue();
+                        case "getDouble":
+                            Object decimal = get(cursor[0], args[0]);
+                            return decimal == null ? 0D : ((Number) decimal).doubleValue();
+                        case "getObject":
+                            return get(cursor[0], args[0]);
+                        case "close":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private Object get(int row, Object column) {
+        return rows.get(row).get(((String) column).toLowerCase(Locale.ROOT));
+    }
+
+}
@@ -0,0 +1,59 @@
+package digit.service;
+
+import org.egov.common.contract.models.Workflow;
+import org.egov.common.contract.request.User;
+import org.egov.common.contract.workflow.ProcessInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps the process instances of a 200 complaint page to their workflows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkflowServiceBenchmark {
+
+    private WorkflowService workflowService;
+
+    private List<ProcessInstance> processInstances;
+
+    @Setup
+    public void setUp() {
+        workflowService = new WorkflowService();
+
+        processInstances = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            processInstances.add(ProcessInstance.builder()
+                    .businessId("PG-PGR-2024-11-18-" + String.format("%06d", i))
+                    .action("ASSIGN")
+                    .comment("Assigned to the field team")
+                    .assignes(Arrays.asList(User.builder().uuid("employee-" + (i % 10)).build(),
+                            User.builder().uuid("employee-" + ((i + 1) % 10)).build()))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public Map<String, Workflow> getWorkflow() {
+        return workflowService.getWorkflow(processInstances);
+    }
+
+}
@@ -0,0 +1,72 @@
+package digit.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digit.config.MainConfiguration;
+import digit.web.models.UserDetailResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds a 200 user search response of the user service to UserDetailResponse,
+ * including its dates, the way UserUtil.userCall reads it. This is the path that
+ * replaced UserUtil.parseResponse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserResponseBindingBenchmark {
+
+    private ObjectMapper mapper;
+
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        MainConfiguration mainConfiguration = new MainConfiguration();
+        ReflectionTestUtils.setField(mainConfiguration, "timeZone", "UTC");
+        mapper = mainConfiguration.objectMapper();
+
+        StringBuilder json = new StringBuilder("{\"responseInfo\":{\"status\":\"200\"},\"user\":[");
+        for (int i = 0; i < 200; i++) {
+            if (i > 0)
+                json.append(',');
+            json.append("{\"id\":").append(i)
+                    .append(",\"uuid\":\"citizen-").append(i).append('"')
+                    .append(",\"userName\":\"98765").append(String.format("%05d", i)).append('"')
+                    .append(",\"name\":\"Citizen ").append(i).append('"')
+                    .append(",\"mobileNumber\":\"98765").append(String.format("%05d", i)).append('"')
+                    .append(",\"emailId\":null,\"gender\":\"MALE\",\"type\":\"CITIZEN\",\"active\":true")
+                    .append(",\"tenantId\":\"pb\",\"locale\":null,\"photo\":null")
+                    .append(",\"permanentAddress\":\"Mall Road, Amritsar\",\"correspondenceAddress\":null")
+                    .append(",\"roles\":[{\"code\":\"CITIZEN\",\"name\":\"Citizen\",\"tenantId\":\"pb\"}]")
+                    .append(",\"dob\":\"1990-01-").append(String.format("%02d", i % 28 + 1)).append('"')
+                    .append(",\"createdDate\":\"18-11-2024 11:00:0").append(i % 10).append('"')
+                    .append(",\"lastModifiedDate\":\"18-11-2024 12:00:0").append(i % 10).append('"')
+                    .append(",\"pwdExpiryDate\":\"16-02-2025 11:00:00\"}");
+        }
+        json.append("]}");
+        response = json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public UserDetailResponse bindUserResponse() throws IOException {
+        return mapper.readValue(response, UserDetailResponse.class);
+    }
+
+}
@@ -0,0 +1,54 @@
+package digit.web.models;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digit.benchmark.BenchmarkData;
+import digit.config.MainConfiguration;
+import org.egov.common.contract.response.ResponseInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes a 200 entity search response with the application ObjectMapper
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceResponseSerializationBenchmark {
+
+    private ObjectMapper mapper;
+
+    private ServiceResponse response;
+
+    @Setup
+    public void setUp() {
+        MainConfiguration mainConfiguration = new MainConfiguration();
+        ReflectionTestUtils.setField(mainConfiguration, "timeZone", "UTC");
+        mapper = mainConfiguration.objectMapper();
+
+        response = ServiceResponse.builder()
+                .responseInfo(ResponseInfo.builder().apiId("Rainmaker").ver(".01").status("successful").build())
+                .pgREntities(BenchmarkData.getPgrEntities(200))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeServiceResponse() throws IOException {
+        return mapper.writeValueAsBytes(response);
+    }
+
+}
@@ -0,0 +1,259 @@
+package digit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stubs for every DIGIT service PGR calls, answering on the paths configured in
+ * PGR's application.properties with responses shaped like the real services.
+ */
+public class DependencyStubs {
+
+    public static final String DEPARTMENT = "DEPT_LOADTEST";
+
+    private final ObjectMapper mapper;
+
+    private final Properties pgrProperties;
+
+    private final List<String> serviceCodes;
+
+    private final List<StubServer> servers = new ArrayList<>();
+
+    private final Map<String, String> hostProperties = new HashMap<>();
+
+    // Seeded with the clock so serviceRequestIds of successive runs do not collide
+    private final AtomicLong idSequence = new AtomicLong(System.currentTimeMillis() % 1_000_000_000L * 1000);
+
+    public DependencyStubs(ObjectMapper mapper, Properties pgrProperties, List<String> serviceCodes) {
+        this.mapper = mapper;
+        this.pgrProperties = pgrProperties;
+        this.serviceCodes = serviceCodes;
+    }
+
+    /**
+     * Starts the stubs
+     *
+     * @return The host properties pointing PGR at the stubs
+     */
+    public Map<String, String> start() throws IOException {
+        start("egov.user.host", new StubServer("user", mapper)
+                .stub(path("egov.user.search.path"), this::searchUsers)
+                .stub(path("egov.user.context.path") + path("egov.user.create.path"), this::upsertUser)
+                .stub(path("egov.user.context.path") + path("egov.user.update.path"), this::upsertUser));
+
+        start("egov.workflow.host", new StubServer("workflow", mapper)
+                .stub(path("egov.workflow.transition.path"), this::transition)
+                .stub(path("egov.workflow.processinstance.search.path"), this::searchProcessInstances)
+                .stub(path("egov.workflow.businessservice.search.path"), this::searchBusinessServices));
+
+        start("egov.mdms.host", new StubServer("mdms", mapper)
+                .stub(path("egov.mdms.search.endpoint"), this::searchMdms));
+
+        start("egov.hrms.host", new StubServer("hrms", mapper)
+                .stub(path("egov.hrms.search.endpoint"), this::searchEmployees));
+
+        start("egov.idgen.host", new StubServer("idgen", mapper)
+                .stub(path("egov.idgen.path"), this::generateIds));
+
+        start("egov.url.shortner.host", new StubServer("urlshortener", mapper)
+                .stub(path("egov.url.shortner.endpoint"), request -> "https://s.digit.org/loadtest"));
+
+        start("egov.localization.host", new StubServer("localization", mapper)
+                .stub(path("egov.localization.context.path") + path("egov.localization.search.endpoint"),
+                        request -> mapper.createObjectNode().set("messages", mapper.createArrayNode())));
+
+        return hostProperties;
+    }
+
+    public void stop() {
+        servers.forEach(StubServer::stop);
+    }
+
+    private void start(String hostProperty, StubServer server) {
+        server.start();
+        servers.add(server);
+        hostProperties.put(hostProperty, server.getUrl());
+    }
+
+    private String path(String property) {
+        String path = pgrProperties.getProperty(property);
+        if (path == null)
+            throw new IllegalStateException("PGR does not configure " + property);
+        return path;
+    }
+
+    private Object searchUsers(StubServer.StubRequest request) {
+        ArrayNode users = mapper.createArrayNode();
+        JsonNode uuids = request.getBody().path("uuid");
+        if (uuids.isArray()) {
+            uuids.forEach(uuid -> users.add(user(uuid.asText(), uuid.asText().replace(LoadTest.CITIZEN_UUID_PREFIX, ""))));
+        } else if (request.getBody().hasNonNull("mobileNumber")) {
+            String mobileNumber = request.getBody().get("mobileNumber").asText();
+            users.add(user(LoadTest.CITIZEN_UUID_PREFIX + mobileNumber, mobileNumber));
+        }
+        ObjectNode response = mapper.createObjectNode();
+        response.set("user", users);
+        return response;
+    }
+
+    private Object upsertUser(StubServer.StubRequest request) {
+        ObjectNode user = request.getBody().path("user").deepCopy();
+        String mobileNumber = user.path("mobileNumber").asText();
+        if (!user.hasNonNull("uuid"))
+            user.put("uuid", LoadTest.CITIZEN_UUID_PREFIX + mobileNumber);
+        user.put("createdDate", "18-11-2024 11:00:00");
+        ObjectNode response = mapper.createObjectNode();
+        response.set("user", mapper.createArrayNode().add(user));
+        return response;
+    }
+
+    private ObjectNode user(String uuid, String mobileNumber) {
+        ObjectNode user = mapper.createObjectNode()
+                .put("id", Math.abs(uuid.hashCode()))
+                .put("uuid", uuid)
+                .put("userName", mobileNumber)
+                .put("name", LoadTest.CITIZEN_NAME)
+                .put("mobileNumber", mobileNumber)
+                .put("type", "CITIZEN")
+                .put("tenantId", "pb")
+                .put("active", true)
+                .put("dob", "1990-01-01")
+                .put("createdDate", "18-11-2024 11:00:00")
+                .put("lastModifiedDate", "18-11-2024 11:00:00");
+        user.set("roles", mapper.createArrayNode().add(mapper.createObjectNode()
+                .put("code", "CITIZEN").put("name", "Citizen").put("tenantId", "pb")));
+        return user;
+    }
+
+    private Object transition(StubServer.StubRequest request) {
+        ArrayNode processInstances = mapper.createArrayNode();
+        request.getBody().path("ProcessInstances").forEach(processInstance -> processInstances.add(
+                processInstance(processInstance.path("tenantId").asText(), processInstance.path("businessId").asText(),
+                        processInstance.path("action").asText())));
+        ObjectNode response = mapper.createObjectNode();
+        response.set("ProcessInstances", processInstances);
+        return response;
+    }
+
+    private Object searchProcessInstances(StubServer.StubRequest request) {
+        ArrayNode processInstances = mapper.createArrayNode();
+        String businessIds = request.getParams().getOrDefault("businessIds", "");
+        for (String businessId : businessIds.split(",")) {
+            if (!businessId.isEmpty())
+                processInstances.add(processInstance(request.getParams().get("tenantId"), businessId, "ASSIGN"));
+        }
+        ObjectNode response = mapper.createObjectNode();
+        response.set("ProcessInstances", processInstances);
+        return response;
+    }
+
+    private ObjectNode processInstance(String tenantId, String businessId, String action) {
+        String status;
+        switch (action) {
+            case "ASSIGN":
+            case "REASSIGN":
+                status = "PENDINGATLME";
+                break;
+            case "RESOLVE":
+                status = "RESOLVED";
+                break;
+            case "RATE":
+                status = "CLOSEDAFTERRESOLUTION";
+                break;
+            default:
+                status = "PENDINGFORASSIGNMENT";
+        }
+
+        ObjectNode processInstance = mapper.createObjectNode()
+                .put("id", businessId)
+                .put("tenantId", tenantId)
+                .put("businessService", "PGR")
+                .put("businessId", businessId)
+                .put("action", action)
+                .put("comment", "Load test");
+        processInstance.set("state", mapper.createObjectNode().put("state", status).put("applicationStatus", status));
+        processInstance.set("assignes", mapper.createArrayNode()
+                .add(mapper.createObjectNode().put("uuid", LoadTest.EMPLOYEE_UUID)));
+        return processInstance;
+    }
+
+    private Object searchBusinessServices(StubServer.StubRequest request) {
+        ObjectNode businessService = mapper.createObjectNode()
+                .put("tenantId", request.getParams().get("tenantId"))
+                .put("businessService", "PGR")
+                .put("business", "pgr-services");
+        businessService.set("states", mapper.createArrayNode());
+        ObjectNode response = mapper.createObjectNode();
+        response.set("BusinessServices", mapper.createArrayNode().add(businessService));
+        return response;
+    }
+
+    private Object searchMdms(StubServer.StubRequest request) {
+        JsonNode criteria = request.getBody().path("MdmsCriteria");
+        String tenantId = criteria.path("tenantId").asText();
+        ArrayNode mdms = mapper.createArrayNode();
+
+        // The whole catalogue fits on the first page
+        if (criteria.path("offset").asInt(0) == 0) {
+            for (String serviceCode : serviceCodes) {
+                ObjectNode data = mapper.createObjectNode()
+                        .put("serviceCode", serviceCode)
+                        .put("name", serviceCode)
+                        .put("department", DEPARTMENT)
+                        .put("ServiceCode", DEPARTMENT)
+                        .put("slaHours", 336)
+                        .put("active", true);
+                ObjectNode entry = mapper.createObjectNode()
+                        .put("id", serviceCode)
+                        .put("tenantId", tenantId)
+                        .put("schemaCode", criteria.path("schemaCode").asText())
+                        .put("uniqueIdentifier", serviceCode)
+                        .put("isActive", true);
+                entry.set("data", data);
+                mdms.add(entry);
+            }
+        }
+        ObjectNode response = mapper.createObjectNode();
+        response.set("mdms", mdms);
+        return response;
+    }
+
+    private Object searchEmployees(StubServer.StubRequest request) {
+        ArrayNode employees = mapper.createArrayNode();
+        for (String uuid : request.getParams().getOrDefault("uuids", "").split(",")) {
+            if (uuid.isEmpty())
+                continue;
+            ObjectNode employee = mapper.createObjectNode().put("uuid", uuid).put("tenantId", LoadTest.TENANT_ID);
+            employee.set("assignments", mapper.createArrayNode().add(mapper.createObjectNode()
+                    .put("department", DEPARTMENT)
+                    .put("designation", "DESIG_LOADTEST")
+                    .put("isCurrentAssignment", true)));
+            employees.add(employee);
+        }
+        ObjectNode response = mapper.createObjectNode();
+        response.set("Employees", employees);
+        return response;
+    }
+
+    private Object generateIds(StubServer.StubRequest request) {
+        ArrayNode idResponses = mapper.createArrayNode();
+        String date = LocalDate.now().toString();
+        request.getBody().path("idRequests").forEach(idRequest -> idResponses.add(
+                mapper.createObjectNode().put("id", "PGR-" + date + "-" + idSequence.incrementAndGet())));
+        ObjectNode response = mapper.createObjectNode();
+        response.set("idResponses", idResponses);
+        return response;
+    }
+
+}
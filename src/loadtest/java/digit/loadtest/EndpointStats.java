@@ -0,0 +1,113 @@
+package digit.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies and outcomes of one endpoint over the measured window. Latency runs
+ * from the time a request was due, not when it was sent, so a stalled service
+ * shows up in the percentiles instead of lowering the request rate.
+ */
+public class EndpointStats {
+
+    private final String endpoint;
+
+    private long[] latenciesMicros = new long[1024];
+
+    private int count;
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    private final Map<String, Long> errors = new TreeMap<>();
+
+    public EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public synchronized void recordSuccess(long latencyMicros) {
+        if (count == latenciesMicros.length)
+            latenciesMicros = Arrays.copyOf(latenciesMicros, count * 2);
+        latenciesMicros[count++] = latencyMicros;
+    }
+
+    public synchronized void recordFailure(String error) {
+        failed.incrementAndGet();
+        errors.merge(error, 1L, Long::sum);
+    }
+
+    /**
+     * Counts a request that was due but could not be built, e.g. an update before
+     * any complaint was created
+     */
+    public void recordSkipped() {
+        skipped.incrementAndGet();
+    }
+
+    /**
+     * @param durationSeconds The length of the measured window
+     * @return The summary of the window
+     */
+    public synchronized Summary summarize(double durationSeconds) {
+        long[] sorted = Arrays.copyOf(latenciesMicros, count);
+        Arrays.sort(sorted);
+
+        Summary summary = new Summary();
+        summary.requests = count + failed.get();
+        summary.succeeded = count;
+        summary.failed = failed.get();
+        summary.skipped = skipped.get();
+        summary.throughput = count / durationSeconds;
+        summary.errorRate = summary.requests == 0 ? 0 : (double) summary.failed / summary.requests;
+        summary.p50Ms = percentile(sorted, 0.50);
+        summary.p95Ms = percentile(sorted, 0.95);
+        summary.p99Ms = percentile(sorted, 0.99);
+        summary.maxMs = sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0;
+        summary.errors = new TreeMap<>(errors);
+        return summary;
+    }
+
+    private double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0)
+            return 0;
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1000.0;
+    }
+
+    /**
+     * Serialized as-is into the report
+     */
+    public static class Summary {
+
+        public long requests;
+
+        public long succeeded;
+
+        public long failed;
+
+        public long skipped;
+
+        public double throughput;
+
+        public double errorRate;
+
+        public double p50Ms;
+
+        public double p95Ms;
+
+        public double p99Ms;
+
+        public double maxMs;
+
+        public Map<String, Long> errors;
+
+    }
+
+}
@@ -0,0 +1,171 @@
+package digit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Sends requests to each endpoint at a fixed rate, independent of how fast PGR
+ * answers (open model), and records the requests due inside the measured window.
+ */
+@Slf4j
+public class LoadDriver {
+
+    private final String baseUrl;
+
+    private final ObjectMapper mapper;
+
+    private final HttpClient client;
+
+    private final ExecutorService executor;
+
+    private final Semaphore outstanding;
+
+    public LoadDriver(String baseUrl, ObjectMapper mapper, int threads, int maxOutstanding) {
+        this.baseUrl = baseUrl;
+        this.mapper = mapper;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.outstanding = new Semaphore(maxOutstanding);
+    }
+
+    /**
+     * Runs the workloads concurrently for warmup plus duration
+     *
+     * @param workloads The endpoints to drive
+     * @param warmup    Requests due before this are sent but not recorded
+     * @param duration  The measured window
+     * @return The stats of each endpoint, by name
+     */
+    public Map<String, EndpointStats> run(List<Workload> workloads, Duration warmup, Duration duration)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        List<Thread> dispatchers = new ArrayList<>();
+        for (Workload workload : workloads) {
+            if (workload.getRatePerSecond() <= 0)
+                continue;
+            EndpointStats endpointStats = new EndpointStats(workload.getName());
+            stats.put(workload.getName(), endpointStats);
+            Thread dispatcher = new Thread(() -> dispatch(workload, endpointStats, start, measureFrom, end),
+                    "loadtest-" + workload.getName());
+            dispatcher.start();
+            dispatchers.add(dispatcher);
+        }
+
+        for (Thread dispatcher : dispatchers)
+            dispatcher.join();
+
+        // Let the requests in flight finish
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        return stats;
+    }
+
+    private void dispatch(Workload workload, EndpointStats stats, long start, long measureFrom, long end) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / workload.getRatePerSecond();
+        for (long due = start; due < end; due += interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+
+            boolean measured = due >= measureFrom;
+            byte[] body = workload.getBody().get();
+            if (body == null) {
+                if (measured)
+                    stats.recordSkipped();
+                continue;
+            }
+
+            if (!outstanding.tryAcquire()) {
+                if (measured)
+                    stats.recordFailure("DRIVER_OVERLOADED");
+                continue;
+            }
+
+            long dueAt = due;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + workload.getPath()))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+                outstanding.release();
+                long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueAt);
+
+                if (error != null) {
+                    if (measured)
+                        stats.recordFailure(error.getClass().getSimpleName());
+                    return;
+                }
+                if (response.statusCode() != 200) {
+                    if (measured)
+                        stats.recordFailure(response.statusCode() + " " + getErrorCode(response.body()));
+                    return;
+                }
+
+                if (measured)
+                    stats.recordSuccess(latencyMicros);
+                if (workload.getOnSuccess() != null)
+                    workload.getOnSuccess().accept(readTree(response.body()));
+            });
+        }
+    }
+
+    private String getErrorCode(byte[] body) {
+        JsonNode response = readTree(body);
+        return response == null ? "" : response.path("Errors").path(0).path("code").asText("");
+    }
+
+    private JsonNode readTree(byte[] body) {
+        try {
+            return mapper.readTree(body);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Workload {
+
+        private final String name;
+
+        private final String path;
+
+        private final int ratePerSecond;
+
+        // Returns null when no request can be built yet
+        private final Supplier<byte[]> body;
+
+        private final Consumer<JsonNode> onSuccess;
+
+    }
+
+}
@@ -0,0 +1,87 @@
+package digit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints the per endpoint summary of a run, writes it as JSON and, given the
+ * report of an earlier run, prints how p99 latency and throughput moved.
+ */
+public class LoadReport {
+
+    private final ObjectMapper mapper;
+
+    private final Map<String, EndpointStats.Summary> summaries = new LinkedHashMap<>();
+
+    private final Map<String, Object> settings;
+
+    public LoadReport(ObjectMapper mapper, Map<String, EndpointStats> stats, double durationSeconds,
+            Map<String, Object> settings) {
+        this.mapper = mapper;
+        this.settings = settings;
+        stats.forEach((endpoint, endpointStats) -> summaries.put(endpoint, endpointStats.summarize(durationSeconds)));
+    }
+
+    public void print(PrintStream out) {
+        out.println();
+        out.println(String.format("%-8s %9s %9s %9s %9s %9s %9s %9s %9s", "endpoint", "requests", "req/s",
+                "errors", "p50 ms", "p95 ms", "p99 ms", "max ms", "skipped"));
+        summaries.forEach((endpoint, summary) -> out.println(String.format(
+                "%-8s %9d %9.1f %8.2f%% %9.1f %9.1f %9.1f %9.1f %9d", endpoint, summary.requests,
+                summary.throughput, summary.errorRate * 100, summary.p50Ms, summary.p95Ms, summary.p99Ms,
+                summary.maxMs, summary.skipped)));
+
+        summaries.forEach((endpoint, summary) -> summary.errors.forEach((error, count) ->
+                out.println(String.format("  %s: %s x%d", endpoint, error, count))));
+    }
+
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+        ObjectNode report = mapper.createObjectNode();
+        report.set("settings", mapper.valueToTree(settings));
+        report.set("endpoints", mapper.valueToTree(summaries));
+        mapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+    }
+
+    /**
+     * Prints the change of each endpoint against the report of an earlier run.
+     * Endpoints missing from the baseline are left out.
+     *
+     * @param baseline The JSON report of the earlier run
+     */
+    public void compare(Path baseline, PrintStream out) throws IOException {
+        JsonNode endpoints = mapper.readTree(baseline.toFile()).path("endpoints");
+
+        out.println();
+        out.println("Compared to " + baseline);
+        out.println(String.format("%-8s %12s %12s %9s %12s %12s %9s %10s", "endpoint", "p99 ms base", "p99 ms now",
+                "p99", "req/s base", "req/s now", "req/s", "errors"));
+        summaries.forEach((endpoint, summary) -> {
+            JsonNode base = endpoints.path(endpoint);
+            if (base.isMissingNode())
+                return;
+            double baseP99 = base.path("p99Ms").asDouble();
+            double baseThroughput = base.path("throughput").asDouble();
+            out.println(String.format("%-8s %12.1f %12.1f %9s %12.1f %12.1f %9s %+9.2f%%", endpoint, baseP99,
+                    summary.p99Ms, change(baseP99, summary.p99Ms), baseThroughput, summary.throughput,
+                    change(baseThroughput, summary.throughput),
+                    (summary.errorRate - base.path("errorRate").asDouble()) * 100));
+        });
+    }
+
+    private String change(double base, double now) {
+        if (base == 0)
+            return "n/a";
+        return String.format("%+.1f%%", (now - base) / base * 100);
+    }
+
+}
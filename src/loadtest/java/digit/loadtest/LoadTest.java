@@ -0,0 +1,153 @@
+package digit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digit.Main;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Runs PGR in-process against stubbed DIGIT services, an embedded Kafka broker
+ * and a local Postgres database, drives _create, _update, _search and _count at
+ * the configured rates and reports latency percentiles, throughput and error
+ * rate per endpoint.
+ * <p>
+ * Settings are system properties, e.g.
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="-Dloadtest.rate.create=50 -Dloadtest.baseline=baseline.json"
+ */
+@Slf4j
+public class LoadTest {
+
+    public static final String TENANT_ID = "pb.amritsar";
+
+    public static final String CITIZEN_UUID_PREFIX = "loadtest-citizen-";
+
+    public static final String CITIZEN_NAME = "Load Test Citizen";
+
+    public static final String EMPLOYEE_UUID = "loadtest-employee-gro";
+
+    // Complaints created but not yet updated, an update takes one and puts back the result
+    private static final int UPDATE_QUEUE_CAPACITY = 10000;
+
+    public static void main(String[] args) throws Exception {
+        long durationSeconds = Long.getLong("loadtest.duration.seconds", 60L);
+        long warmupSeconds = Long.getLong("loadtest.warmup.seconds", 15L);
+        List<String> serviceCodes = Arrays.asList(StringUtils.commaDelimitedListToStringArray(
+                System.getProperty("loadtest.servicecodes", "StreetLightNotWorking,GarbageNeedsTobeCleared,NoWaterSupply")));
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("durationSeconds", durationSeconds);
+        settings.put("warmupSeconds", warmupSeconds);
+        settings.put("rateCreate", Integer.getInteger("loadtest.rate.create", 20));
+        settings.put("rateUpdate", Integer.getInteger("loadtest.rate.update", 10));
+        settings.put("rateSearch", Integer.getInteger("loadtest.rate.search", 40));
+        settings.put("rateCount", Integer.getInteger("loadtest.rate.count", 20));
+
+        ObjectMapper mapper = new ObjectMapper();
+        Properties pgrProperties = PropertiesLoaderUtils.loadAllProperties("application.properties");
+
+        EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, 1, getTopics(pgrProperties));
+        kafka.afterPropertiesSet();
+
+        DependencyStubs stubs = new DependencyStubs(mapper, pgrProperties, serviceCodes);
+        ConfigurableApplicationContext context = null;
+        try {
+            Map<String, String> overrides = new LinkedHashMap<>(stubs.start());
+            overrides.put("spring.kafka.bootstrap-servers", kafka.getBrokersAsString());
+            overrides.put("kafka.config.bootstrap_server_config", kafka.getBrokersAsString());
+            overrides.put("server.port", "0");
+            overrides.put("pgr.jdbc.write.enabled", "true");
+            overrides.put("pgr.mdms.catalogue.preload.tenants", TENANT_ID);
+            String dbUrl = System.getProperty("loadtest.db.url", "jdbc:postgresql://localhost:5432/pgrv2_loadtest");
+            String dbUsername = System.getProperty("loadtest.db.username", "postgres");
+            String dbPassword = System.getProperty("loadtest.db.password", "postgres");
+            overrides.put("spring.datasource.url", dbUrl);
+            overrides.put("spring.datasource.username", dbUsername);
+            overrides.put("spring.datasource.password", dbPassword);
+            overrides.put("spring.flyway.url", dbUrl);
+            overrides.put("spring.flyway.user", dbUsername);
+            overrides.put("spring.flyway.password", dbPassword);
+
+            // Command line arguments take precedence over application.properties
+            List<String> applicationArgs = new ArrayList<>(Arrays.asList(args));
+            overrides.forEach((key, value) -> applicationArgs.add("--" + key + "=" + value));
+            context = new SpringApplicationBuilder(Main.class).run(applicationArgs.toArray(new String[0]));
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + context.getEnvironment().getProperty("server.servlet.context-path", "");
+
+            PgrRequests requests = new PgrRequests(mapper, serviceCodes,
+                    Integer.getInteger("loadtest.citizens", 1000), Integer.getInteger("loadtest.search.limit", 50));
+            BlockingQueue<JsonNode> created = new LinkedBlockingQueue<>(UPDATE_QUEUE_CAPACITY);
+            Consumer<JsonNode> enqueue = response -> {
+                if (response != null)
+                    response.path("PGREntities").forEach(created::offer);
+            };
+
+            List<LoadDriver.Workload> workloads = Arrays.asList(
+                    new LoadDriver.Workload("create", "/v2/_create", (Integer) settings.get("rateCreate"),
+                            requests::create, enqueue),
+                    new LoadDriver.Workload("update", "/v2/_update", (Integer) settings.get("rateUpdate"), () -> {
+                        JsonNode pgrEntity = created.poll();
+                        return pgrEntity == null ? null : requests.update(pgrEntity);
+                    }, enqueue),
+                    new LoadDriver.Workload("search", "/v2/_search", (Integer) settings.get("rateSearch"),
+                            requests::search, null),
+                    new LoadDriver.Workload("count", "/v2/_count", (Integer) settings.get("rateCount"),
+                            requests::count, null));
+
+            LoadDriver driver = new LoadDriver(baseUrl, mapper, Integer.getInteger("loadtest.client.threads", 32),
+                    Integer.getInteger("loadtest.max.outstanding", 2000));
+            log.info("Driving " + baseUrl + " for " + warmupSeconds + "s warmup and " + durationSeconds + "s measured");
+            Map<String, EndpointStats> stats = driver.run(workloads, Duration.ofSeconds(warmupSeconds),
+                    Duration.ofSeconds(durationSeconds));
+
+            LoadReport report = new LoadReport(mapper, stats, durationSeconds, settings);
+            report.print(System.out);
+            Path reportPath = Paths.get(System.getProperty("loadtest.report", "target/loadtest/report.json"));
+            report.write(reportPath);
+            System.out.println("Report written to " + reportPath);
+
+            String baseline = System.getProperty("loadtest.baseline");
+            if (StringUtils.hasText(baseline))
+                report.compare(Paths.get(baseline), System.out);
+        } finally {
+            if (context != null)
+                context.close();
+            stubs.stop();
+            kafka.destroy();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Every topic named in PGR's properties, so producers do not wait for auto creation
+     */
+    private static String[] getTopics(Properties pgrProperties) {
+        List<String> topics = new ArrayList<>();
+        pgrProperties.stringPropertyNames().stream()
+                .filter(key -> key.endsWith(".topic") || key.contains(".topics."))
+                .map(pgrProperties::getProperty)
+                .filter(value -> StringUtils.hasText(value) && !value.contains("${"))
+                .forEach(value -> topics.addAll(StringUtils.commaDelimitedListToSet(value)));
+        return topics.stream().map(String::trim).distinct().toArray(String[]::new);
+    }
+
+}
@@ -0,0 +1,141 @@
+package digit.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds the request bodies of the driven endpoints. Every request is sent by
+ * the same GRO employee, complaints are filed for a fixed pool of citizens.
+ */
+public class PgrRequests {
+
+    private final ObjectMapper mapper;
+
+    private final List<String> serviceCodes;
+
+    private final int citizens;
+
+    private final int searchLimit;
+
+    public PgrRequests(ObjectMapper mapper, List<String> serviceCodes, int citizens, int searchLimit) {
+        this.mapper = mapper;
+        this.serviceCodes = serviceCodes;
+        this.citizens = citizens;
+        this.searchLimit = searchLimit;
+    }
+
+    public byte[] create() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String mobileNumber = String.valueOf(9000000000L + random.nextInt(citizens));
+
+        ObjectNode citizen = mapper.createObjectNode()
+                .put("name", LoadTest.CITIZEN_NAME)
+                .put("mobileNumber", mobileNumber)
+                .put("userName", mobileNumber)
+                .put("type", "CITIZEN")
+                .put("tenantId", "pb");
+
+        ObjectNode locality = mapper.createObjectNode().put("code", "SUN" + (random.nextInt(20) + 1));
+        ObjectNode address = mapper.createObjectNode()
+                .put("tenantId", LoadTest.TENANT_ID)
+                .put("city", "Amritsar")
+                .put("landmark", "Load test");
+        address.set("locality", locality);
+        address.set("geoLocation", mapper.createObjectNode().put("latitude", 31.63).put("longitude", 74.87));
+
+        ObjectNode service = mapper.createObjectNode()
+                .put("tenantId", LoadTest.TENANT_ID)
+                .put("serviceCode", serviceCodes.get(random.nextInt(serviceCodes.size())))
+                .put("description", "Load test complaint")
+                .put("source", "web");
+        service.set("citizen", citizen);
+        service.set("address", address);
+
+        ObjectNode pgrEntity = mapper.createObjectNode();
+        pgrEntity.set("service", service);
+        pgrEntity.set("workflow", mapper.createObjectNode().put("action", "APPLY"));
+        return write(request(pgrEntity));
+    }
+
+    /**
+     * Assigns a complaint returned by an earlier create or update
+     *
+     * @param pgrEntity The PgrEntity of the earlier response
+     */
+    public byte[] update(JsonNode pgrEntity) {
+        ObjectNode workflow = mapper.createObjectNode()
+                .put("action", "ASSIGN")
+                .put("comments", "Load test");
+        workflow.set("assignes", mapper.createArrayNode().add(LoadTest.EMPLOYEE_UUID));
+
+        ObjectNode updated = mapper.createObjectNode();
+        updated.set("service", pgrEntity.path("service"));
+        updated.set("workflow", workflow);
+        return write(request(updated));
+    }
+
+    public byte[] search() {
+        return write(searchRequest());
+    }
+
+    public byte[] count() {
+        return write(searchRequest());
+    }
+
+    private ObjectNode searchRequest() {
+        // Employees may not search on the tenant alone
+        ObjectNode criteria = mapper.createObjectNode()
+                .put("tenantId", LoadTest.TENANT_ID)
+                .put("limit", searchLimit);
+        criteria.set("serviceCode", mapper.createArrayNode()
+                .add(serviceCodes.get(ThreadLocalRandom.current().nextInt(serviceCodes.size()))));
+
+        ObjectNode request = mapper.createObjectNode();
+        request.set("RequestInfo", requestInfo());
+        request.set("criteria", criteria);
+        return request;
+    }
+
+    private ObjectNode request(ObjectNode pgrEntity) {
+        ObjectNode request = mapper.createObjectNode();
+        request.set("RequestInfo", requestInfo());
+        request.set("PgrEntity", pgrEntity);
+        return request;
+    }
+
+    private ObjectNode requestInfo() {
+        ObjectNode userInfo = mapper.createObjectNode()
+                .put("id", 1)
+                .put("uuid", LoadTest.EMPLOYEE_UUID)
+                .put("userName", "loadtest-gro")
+                .put("name", "Load Test GRO")
+                .put("type", "EMPLOYEE")
+                .put("tenantId", LoadTest.TENANT_ID);
+        userInfo.set("roles", mapper.createArrayNode()
+                .add(mapper.createObjectNode().put("code", "GRO").put("name", "Grievance Routing Officer")
+                        .put("tenantId", LoadTest.TENANT_ID))
+                .add(mapper.createObjectNode().put("code", "EMPLOYEE").put("name", "Employee")
+                        .put("tenantId", LoadTest.TENANT_ID)));
+
+        ObjectNode requestInfo = mapper.createObjectNode()
+                .put("apiId", "Rainmaker")
+                .put("msgId", System.currentTimeMillis() + "|en_IN");
+        requestInfo.set("userInfo", userInfo);
+        return requestInfo;
+    }
+
+    private byte[] write(ObjectNode request) {
+        try {
+            return mapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
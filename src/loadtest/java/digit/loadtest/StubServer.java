@@ -0,0 +1,161 @@
+package digit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * In-process stand-in for one DIGIT service. Every stubbed path answers with
+ * JSON built from the request, after the configured latency, and fails with a
+ * 500 at the configured error rate.
+ * <p>
+ * Faults are read from loadtest.stub.&lt;name&gt;.latency.ms, .jitter.ms and
+ * .error.rate, e.g. -Dloadtest.stub.hrms.latency.ms=300 -Dloadtest.stub.hrms.error.rate=0.05
+ */
+@Slf4j
+public class StubServer {
+
+    private final String name;
+
+    private final ObjectMapper mapper;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final long latencyMillis;
+
+    private final long jitterMillis;
+
+    private final double errorRate;
+
+    public StubServer(String name, ObjectMapper mapper) throws IOException {
+        this.name = name;
+        this.mapper = mapper;
+        this.latencyMillis = Long.getLong("loadtest.stub." + name + ".latency.ms", 5L);
+        this.jitterMillis = Long.getLong("loadtest.stub." + name + ".jitter.ms", 5L);
+        this.errorRate = Double.parseDouble(System.getProperty("loadtest.stub." + name + ".error.rate", "0"));
+
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        this.executor = Executors.newFixedThreadPool(Integer.getInteger("loadtest.stub.threads", 200));
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Answers POSTs to the path with the JSON returned by the handler
+     *
+     * @param path    The path, matched as a prefix
+     * @param handler Builds the response from the request
+     * @return This stub
+     */
+    public StubServer stub(String path, Function<StubRequest, Object> handler) {
+        server.createContext(path, exchange -> handle(exchange, handler));
+        return this;
+    }
+
+    public void start() {
+        server.start();
+        log.info("Stub " + name + " listening on " + getUrl() + " with latency " + latencyMillis + "+-"
+                + jitterMillis + "ms and error rate " + errorRate);
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange, Function<StubRequest, Object> handler) throws IOException {
+        try {
+            JsonNode body;
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] bytes = in.readAllBytes();
+                body = bytes.length == 0 ? mapper.createObjectNode() : mapper.readTree(bytes);
+            }
+
+            delay();
+
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                respond(exchange, 500, mapper.createObjectNode().put("error", "Injected failure in " + name));
+                return;
+            }
+
+            StubRequest request = new StubRequest(exchange.getRequestURI().getPath(),
+                    getQueryParams(exchange.getRequestURI().getRawQuery()), body);
+            respond(exchange, 200, handler.apply(request));
+        } catch (RuntimeException e) {
+            log.error("Stub " + name + " failed to answer " + exchange.getRequestURI(), e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay() {
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1) : 0);
+        if (delay <= 0)
+            return;
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Object response) throws IOException {
+        byte[] bytes = response instanceof String ? ((String) response).getBytes(StandardCharsets.UTF_8)
+                : mapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type",
+                response instanceof String ? "text/plain" : "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private Map<String, String> getQueryParams(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null)
+            return params;
+        for (String param : query.split("&")) {
+            int separator = param.indexOf('=');
+            if (separator > 0)
+                params.put(param.substring(0, separator),
+                        URLDecoder.decode(param.substring(separator + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StubRequest {
+
+        private final String path;
+
+        private final Map<String, String> params;
+
+        private final JsonNode body;
+
+    }
+
+}
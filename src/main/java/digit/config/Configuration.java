@@ -44,6 +44,21 @@ public class Configuration {
     @Value("${egov.idgen.pgr.serviceRequestId.format}")
     private String serviceRequestIdGenFormat;
 
+    @Value("${pgr.idgen.pool.block.size}")
+    private Integer idGenPoolBlockSize;
+
+    @Value("${pgr.idgen.pool.low.watermark}")
+    private Integer idGenPoolLowWatermark;
+
+    @Value("${pgr.idgen.pool.timezone}")
+    private String idGenTimeZone;
+
+    @Value("${pgr.idgen.pool.refill.pool.size}")
+    private Integer idGenRefillPoolSize;
+
+    @Value("${pgr.idgen.pool.refill.queue.capacity}")
+    private Integer idGenRefillQueueCapacity;
+
     // Workflow Config
     @Value("${egov.workflow.host}")
     private String wfHost;
@@ -64,6 +79,24 @@ public class Configuration {
     @Value("${egov.mdms.search.endpoint}")
     private String mdmsEndPoint;
 
+    @Value("${egov.mdms.servicedef.schema.code}")
+    private String serviceDefSchemaCode;
+
+    @Value("${pgr.mdms.catalogue.page.size}")
+    private Integer serviceDefPageSize;
+
+    @Value("${pgr.mdms.catalogue.ttl.seconds}")
+    private Long serviceDefCacheTtl;
+
+    @Value("${pgr.mdms.catalogue.refresh.seconds}")
+    private Long serviceDefCacheRefresh;
+
+    @Value("${pgr.mdms.catalogue.miss.reload.seconds}")
+    private Long serviceDefMissReload;
+
+    @Value("${pgr.mdms.catalogue.preload.tenants}")
+    private String serviceDefPreloadTenants;
+
     // HRMS
     @Value("${egov.hrms.host}")
     private String hrmsHost;
@@ -71,6 +104,12 @@ public class Configuration {
     @Value("${egov.hrms.search.endpoint}")
     private String hrmsEndPoint;
 
+    @Value("${pgr.hrms.cache.max.size}")
+    private Long hrmsCacheMaxSize;
+
+    @Value("${pgr.hrms.cache.ttl.seconds}")
+    private Long hrmsCacheTtl;
+
     // URLShortening
     @Value("${egov.url.shortner.host}")
     private String urlShortnerHost;
@@ -94,6 +133,110 @@ public class Configuration {
     @Value("${pgr.kafka.update.topic}")
     private String pgrUpdateTopic;
 
+    @Value("${pgr.kafka.producer.max.in.flight}")
+    private Integer kafkaMaxInFlight;
+
+    @Value("${pgr.kafka.producer.acquire.timeout.ms}")
+    private Long kafkaAcquireTimeout;
+
+    @Value("${pgr.kafka.producer.ack.timeout.ms}")
+    private Long kafkaAckTimeout;
+
+    @Value("${pgr.kafka.producer.wait.for.ack.topics}")
+    private String kafkaWaitForAckTopics;
+
+    @Value("${pgr.kafka.producer.queued.pool.size}")
+    private Integer kafkaQueuedSendPoolSize;
+
+    @Value("${tracer.kafkaMessageLoggingEnabled}")
+    private Boolean kafkaMessageLoggingEnabled;
+
+    @Value("${pgr.kafka.spool.enabled}")
+    private Boolean kafkaSpoolEnabled;
+
+    @Value("${pgr.kafka.spool.dir}")
+    private String kafkaSpoolDir;
+
+    @Value("${pgr.kafka.spool.segment.size.mb}")
+    private Long kafkaSpoolSegmentSize;
+
+    @Value("${pgr.kafka.spool.max.size.mb}")
+    private Long kafkaSpoolMaxSize;
+
+    @Value("${pgr.kafka.spool.sync}")
+    private Boolean kafkaSpoolSync;
+
+    @Value("${pgr.kafka.spool.drain.interval.ms}")
+    private Long kafkaSpoolDrainInterval;
+
+    @Value("${pgr.jdbc.write.enabled}")
+    private Boolean jdbcWriteEnabled;
+
+    @Value("${pgr.jdbc.write.batch.size}")
+    private Integer jdbcWriteBatchSize;
+
+    @Value("${pgr.jdbc.write.linger.ms}")
+    private Long jdbcWriteLinger;
+
+    @Value("${pgr.jdbc.write.queue.capacity}")
+    private Integer jdbcWriteQueueCapacity;
+
+    @Value("${pgr.jdbc.write.timeout.ms}")
+    private Long jdbcWriteTimeout;
+
+    @Value("${pgr.bulk.create.max.size}")
+    private Integer bulkCreateMaxSize;
+
+    // Outbound http client
+    @Value("${pgr.http.client.max.total}")
+    private Integer httpClientMaxTotal;
+
+    @Value("${pgr.http.client.max.per.route}")
+    private Integer httpClientMaxPerRoute;
+
+    @Value("${pgr.http.client.connect.timeout.ms}")
+    private Long httpClientConnectTimeout;
+
+    @Value("${pgr.http.client.read.timeout.ms}")
+    private Long httpClientReadTimeout;
+
+    @Value("${pgr.http.client.pool.timeout.ms}")
+    private Long httpClientPoolTimeout;
+
+    @Value("${pgr.http.client.idle.timeout.seconds}")
+    private Long httpClientIdleTimeout;
+
+    @Value("${pgr.http.client.ttl.seconds}")
+    private Long httpClientConnectionTtl;
+
+    // Circuit breaker and bulkhead per dependency
+    @Value("${pgr.http.client.circuit.sliding.window.size}")
+    private Integer circuitSlidingWindowSize;
+
+    @Value("${pgr.http.client.circuit.minimum.calls}")
+    private Integer circuitMinimumCalls;
+
+    @Value("${pgr.http.client.circuit.failure.rate.threshold}")
+    private Float circuitFailureRateThreshold;
+
+    @Value("${pgr.http.client.circuit.slow.call.rate.threshold}")
+    private Float circuitSlowCallRateThreshold;
+
+    @Value("${pgr.http.client.circuit.slow.call.ms}")
+    private Long circuitSlowCallDuration;
+
+    @Value("${pgr.http.client.circuit.open.wait.ms}")
+    private Long circuitOpenWait;
+
+    @Value("${pgr.http.client.circuit.half.open.calls}")
+    private Integer circuitHalfOpenCalls;
+
+    @Value("${pgr.http.client.bulkhead.max.concurrent.calls}")
+    private Integer bulkheadMaxConcurrentCalls;
+
+    @Value("${pgr.http.client.bulkhead.max.wait.ms}")
+    private Long bulkheadMaxWait;
+
     // Allowed Search Parameters
     @Value("${citizen.allowed.search.params}")
     private String allowedCitizenSearchParameters;
@@ -113,6 +256,69 @@ public class Configuration {
     @Value("${egov.dynamicdata.period}")
     private String numberOfDays;
 
+    @Value("${pgr.dynamicdata.cache.ttl.seconds}")
+    private Long dynamicDataCacheTtl;
+
+    @Value("${pgr.dynamicdata.cache.refresh.seconds}")
+    private Long dynamicDataCacheRefresh;
+
     @Value("${pgr.complain.idle.time}")
     private Long complainMaxIdleTime;
+
+    @Value("${pgr.sla.default.hours}")
+    private Long defaultSlaHours;
+
+    @Value("${pgr.sla.backfill.enabled}")
+    private Boolean slaBackfillEnabled;
+
+    @Value("${pgr.sla.backfill.batch.size}")
+    private Integer slaBackfillBatchSize;
+
+    @Value("${pgr.sla.backfill.pause.ms}")
+    private Long slaBackfillPause;
+
+    // Enrichment executor
+    @Value("${pgr.enrichment.pool.size}")
+    private Integer enrichmentPoolSize;
+
+    @Value("${pgr.enrichment.queue.capacity}")
+    private Integer enrichmentQueueCapacity;
+
+    // Background refresh of the definition caches
+    @Value("${pgr.cache.refresh.pool.size}")
+    private Integer cacheRefreshPoolSize;
+
+    @Value("${pgr.cache.refresh.queue.capacity}")
+    private Integer cacheRefreshQueueCapacity;
+
+    @Value("${pgr.enrichment.timeout.ms}")
+    private Long enrichmentTimeout;
+
+    // User cache
+    @Value("${pgr.user.cache.max.size}")
+    private Long userCacheMaxSize;
+
+    @Value("${pgr.user.cache.ttl.seconds}")
+    private Long userCacheTtl;
+
+    // Workflow business service cache
+    @Value("${pgr.businessservice.cache.ttl.seconds}")
+    private Long businessServiceCacheTtl;
+
+    @Value("${pgr.businessservice.cache.refresh.seconds}")
+    private Long businessServiceCacheRefresh;
+
+    // Request phase metrics
+    @Value("${pgr.metrics.tenant.tags}")
+    private String metricsTenantTags;
+
+    @Value("${pgr.metrics.histogram.enabled}")
+    private Boolean metricsHistogramEnabled;
+
+    // Server-Timing
+    @Value("${pgr.server.timing.enabled}")
+    private Boolean serverTimingEnabled;
+
+    @Value("${pgr.server.timing.response.enabled}")
+    private Boolean serverTimingResponseEnabled;
 }
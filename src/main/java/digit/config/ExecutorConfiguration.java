@@ -0,0 +1,111 @@
+package digit.config;
+
+import org.slf4j.MDC;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@org.springframework.context.annotation.Configuration
+public class ExecutorConfiguration {
+
+    /**
+     * Bounded pool for the blocking remote enrichment calls made during search.
+     * When the pool and its queue are full the caller runs the task itself, so
+     * overload degrades to sequential enrichment instead of failing.
+     *
+     * @param config The PGR configuration
+     * @return The enrichment executor
+     */
+    @Bean(name = "enrichmentExecutor")
+    public ThreadPoolTaskExecutor enrichmentExecutor(Configuration config) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getEnrichmentPoolSize());
+        executor.setMaxPoolSize(config.getEnrichmentPoolSize());
+        executor.setQueueCapacity(config.getEnrichmentQueueCapacity());
+        executor.setThreadNamePrefix("pgr-enrichment-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(ExecutorConfiguration::withLoggingContext);
+        return executor;
+    }
+
+    /**
+     * Sends Kafka records that waited for an earlier record of the same key. The
+     * wait ends on the producer's callback thread, which must not block on a send
+     * itself, so the queue is unbounded and the caller never runs the task.
+     *
+     * @param config The PGR configuration
+     * @return The executor of queued Kafka sends
+     */
+    @Bean(name = "kafkaSendExecutor")
+    public ThreadPoolTaskExecutor kafkaSendExecutor(Configuration config) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getKafkaQueuedSendPoolSize());
+        executor.setMaxPoolSize(config.getKafkaQueuedSendPoolSize());
+        executor.setThreadNamePrefix("pgr-kafka-send-");
+        executor.setTaskDecorator(ExecutorConfiguration::withLoggingContext);
+        return executor;
+    }
+
+    /**
+     * Refreshes cached definitions in the background. The callers are requests
+     * served from the stale entry, so a refresh is never run by the caller: when
+     * the pool and its queue are full it is rejected and tried again on a later
+     * read.
+     *
+     * @param config The PGR configuration
+     * @return The executor of background cache refreshes
+     */
+    @Bean(name = "cacheRefreshExecutor")
+    public ThreadPoolTaskExecutor cacheRefreshExecutor(Configuration config) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getCacheRefreshPoolSize());
+        executor.setMaxPoolSize(config.getCacheRefreshPoolSize());
+        executor.setQueueCapacity(config.getCacheRefreshQueueCapacity());
+        executor.setThreadNamePrefix("pgr-cache-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(ExecutorConfiguration::withLoggingContext);
+        return executor;
+    }
+
+    /**
+     * Leases blocks of serviceRequestIds from IdGen in the background. A refill is
+     * never run by the caller, which is a create request: when the pool and its
+     * queue are full the refill is rejected and the pool falls back to leasing on
+     * the request thread once it runs dry.
+     *
+     * @param config The PGR configuration
+     * @return The executor of id pool refills
+     */
+    @Bean(name = "idPoolRefillExecutor")
+    public ThreadPoolTaskExecutor idPoolRefillExecutor(Configuration config) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getIdGenRefillPoolSize());
+        executor.setMaxPoolSize(config.getIdGenRefillPoolSize());
+        executor.setQueueCapacity(config.getIdGenRefillQueueCapacity());
+        executor.setThreadNamePrefix("pgr-idgen-refill-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(ExecutorConfiguration::withLoggingContext);
+        return executor;
+    }
+
+    // Carry the request's logging context (correlation id) over to the worker thread
+    private static Runnable withLoggingContext(Runnable runnable) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            if (context != null)
+                MDC.setContextMap(context);
+            try {
+                runnable.run();
+            } finally {
+                if (previous != null)
+                    MDC.setContextMap(previous);
+                else
+                    MDC.clear();
+            }
+        };
+    }
+
+}
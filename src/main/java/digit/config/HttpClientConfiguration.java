@@ -0,0 +1,206 @@
+package digit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import digit.util.OutboundDependencies;
+import digit.util.OutboundMetricsInterceptor;
+import digit.util.OutboundResilienceInterceptor;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+@org.springframework.context.annotation.Configuration
+public class HttpClientConfiguration {
+
+    /**
+     * Pool of keep-alive connections shared by all calls to the other services.
+     * The per route limit keeps one slow dependency from taking every connection.
+     * Pool totals are published as httpcomponents.httpclient.pool.* and the usage
+     * of each dependency's route as pgr.http.client.pool.*.
+     *
+     * @param config        The PGR configuration
+     * @param dependencies  The configured dependencies
+     * @param meterRegistry The meter registry
+     * @return The connection manager
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager outboundConnectionManager(Configuration config,
+            OutboundDependencies dependencies, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getHttpClientMaxTotal())
+                .setMaxConnPerRoute(config.getHttpClientMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(config.getHttpClientConnectTimeout()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(config.getHttpClientReadTimeout()))
+                        .setTimeToLive(TimeValue.ofSeconds(config.getHttpClientConnectionTtl()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "pgr-outbound").bindTo(meterRegistry);
+
+        dependencies.getHosts().forEach((name, uri) -> {
+            HttpRoute route = getRoute(uri);
+            registerPoolGauge(meterRegistry, connectionManager, route, name, "leased", PoolStats::getLeased);
+            registerPoolGauge(meterRegistry, connectionManager, route, name, "pending", PoolStats::getPending);
+            registerPoolGauge(meterRegistry, connectionManager, route, name, "available", PoolStats::getAvailable);
+        });
+        return connectionManager;
+    }
+
+    /**
+     * Http client for the calls to the other services. A request waits at most
+     * pgr.http.client.pool.timeout.ms for a pooled connection, and connections idle
+     * longer than pgr.http.client.idle.timeout.seconds are closed in the background.
+     *
+     * @param config            The PGR configuration
+     * @param connectionManager The pooled connection manager
+     * @return The http client
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient outboundHttpClient(Configuration config,
+            PoolingHttpClientConnectionManager connectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(config.getHttpClientPoolTimeout()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(config.getHttpClientReadTimeout()))
+                        .build())
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(config.getHttpClientIdleTimeout()))
+                .build();
+    }
+
+    /**
+     * One circuit breaker per dependency. It opens when at least the configured
+     * percentage of the calls in the sliding window failed or were slower than
+     * pgr.http.client.circuit.slow.call.ms, and lets probe calls through after the
+     * open wait. State and call counts are published as resilience4j.circuitbreaker.*.
+     *
+     * @param config        The PGR configuration
+     * @param dependencies  The configured dependencies
+     * @param meterRegistry The meter registry
+     * @return The circuit breaker registry
+     */
+    @Bean
+    public CircuitBreakerRegistry outboundCircuitBreakerRegistry(Configuration config,
+            OutboundDependencies dependencies, MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(config.getCircuitSlidingWindowSize())
+                .minimumNumberOfCalls(config.getCircuitMinimumCalls())
+                .failureRateThreshold(config.getCircuitFailureRateThreshold())
+                .slowCallRateThreshold(config.getCircuitSlowCallRateThreshold())
+                .slowCallDurationThreshold(Duration.ofMillis(config.getCircuitSlowCallDuration()))
+                .waitDurationInOpenState(Duration.ofMillis(config.getCircuitOpenWait()))
+                .permittedNumberOfCallsInHalfOpenState(config.getCircuitHalfOpenCalls())
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        dependencies.getHosts().keySet().forEach(registry::circuitBreaker);
+        return registry;
+    }
+
+    /**
+     * One bulkhead per dependency, capping its calls in progress. A call waits at
+     * most pgr.http.client.bulkhead.max.wait.ms for a free slot. Usage is published
+     * as resilience4j.bulkhead.*.
+     *
+     * @param config        The PGR configuration
+     * @param dependencies  The configured dependencies
+     * @param meterRegistry The meter registry
+     * @return The bulkhead registry
+     */
+    @Bean
+    public BulkheadRegistry outboundBulkheadRegistry(Configuration config,
+            OutboundDependencies dependencies, MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(config.getBulkheadMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ofMillis(config.getBulkheadMaxWait()))
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        dependencies.getHosts().keySet().forEach(registry::bulkhead);
+        return registry;
+    }
+
+    /**
+     * Moves the shared RestTemplate onto the pooled client, guards its calls with
+     * the dependency's circuit breaker and bulkhead and times them. The template
+     * itself is left to the tracer so its logging and correlation id interceptors
+     * keep working, the factory is buffered because the tracer reads the response
+     * body for logging. Responses are bound with the application's ObjectMapper, so
+     * typed responses skip unknown properties and use the application's modules.
+     *
+     * @param restTemplate          The RestTemplate every repository and util uses
+     * @param mapper                The application ObjectMapper
+     * @param httpClient            The pooled http client
+     * @param resilienceInterceptor Applies the circuit breaker and bulkhead
+     * @param metricsInterceptor    Times each outbound call
+     * @return Initializer applied once all singletons are created
+     */
+    @Bean
+    public SmartInitializingSingleton outboundRestTemplateInitializer(RestTemplate restTemplate, ObjectMapper mapper,
+            CloseableHttpClient httpClient, OutboundResilienceInterceptor resilienceInterceptor,
+            OutboundMetricsInterceptor metricsInterceptor) {
+        return () -> {
+            restTemplate.setRequestFactory(new BufferingClientHttpRequestFactory(
+                    new HttpComponentsClientHttpRequestFactory(httpClient)));
+
+            restTemplate.getMessageConverters().stream()
+                    .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                    .forEach(converter -> ((MappingJackson2HttpMessageConverter) converter).setObjectMapper(mapper));
+
+            // Calls refused by the circuit breaker or bulkhead are not timed as calls
+            List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(restTemplate.getInterceptors());
+            interceptors.add(0, resilienceInterceptor);
+            interceptors.add(1, metricsInterceptor);
+            restTemplate.setInterceptors(interceptors);
+        };
+    }
+
+    private HttpRoute getRoute(URI uri) {
+        HttpHost target = new HttpHost(uri.getScheme(), uri.getHost(), OutboundDependencies.getPort(uri));
+        return new HttpRoute(target, null, "https".equalsIgnoreCase(uri.getScheme()));
+    }
+
+    private void registerPoolGauge(MeterRegistry meterRegistry, PoolingHttpClientConnectionManager connectionManager,
+            HttpRoute route, String dependency, String state, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder("pgr.http.client.pool." + state, connectionManager,
+                        manager -> value.applyAsDouble(manager.getStats(route)))
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+    }
+
+}
@@ -10,9 +10,12 @@ import java.util.TimeZone;
 import jakarta.annotation.PostConstruct;
     import com.fasterxml.jackson.databind.DeserializationFeature;
     import com.fasterxml.jackson.databind.ObjectMapper;
+    import com.fasterxml.jackson.databind.SerializationFeature;
+    import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.egov.tracer.config.TracerConfiguration;
 
 
+@org.springframework.context.annotation.Configuration
 @Import({TracerConfiguration.class})
 public class MainConfiguration {
 
@@ -26,7 +29,12 @@ public class MainConfiguration {
 
     @Bean
     public ObjectMapper objectMapper(){
-    return new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).setTimeZone(TimeZone.getTimeZone(timeZone));
+    return new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            .registerModule(new JavaTimeModule())
+            .registerModule(new UserServiceDateModule())
+            .setTimeZone(TimeZone.getTimeZone(timeZone));
     }
 
     @Bean
@@ -36,4 +44,4 @@ public class MainConfiguration {
     converter.setObjectMapper(objectMapper);
     return converter;
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,9 @@ package digit.config;
 
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Component
 public class PGRConstants {
 
@@ -9,10 +12,10 @@ public class PGRConstants {
     public static final String PGR_BUSINESSSERVICE = "PGR";
 
     public static final String EXTERNAL_SERVICE_EXCEPTION = "External Service threw an Exception: ";
-    public static final String SEARCHER_SERVICE_EXCEPTION = "Exception while fetching from searcher: ";
 
     public static final String IDGEN_ERROR = "IDGEN ERROR";
     public static final String NO_IDS_FOUND_ERROR = "No ids returned from idgen Service";
+    public static final String TOO_FEW_IDS_ERROR = "IdGen returned fewer ids than requested: ";
 
     public static final String ERROR_WHILE_FETCHING_FROM_MDMS = "Exception occurred while fetching category lists from mdms: ";
 
@@ -26,18 +29,9 @@ public class PGRConstants {
 
     public static final String DOB_FORMAT_Y_M_D = "yyyy-MM-dd";
     public static final String DOB_FORMAT_D_M_Y = "dd/MM/yyyy";
-    public static final String ILLEGAL_ARGUMENT_EXCEPTION_CODE = "IllegalArgumentException";
-    public static final String OBJECTMAPPER_UNABLE_TO_CONVERT = "ObjectMapper not able to convertValue in userCall";
     public static final String DOB_FORMAT_D_M_Y_H_M_S = "dd-MM-yyyy HH:mm:ss";
-    public static final String CREATED_DATE = "createdDate";
-    public static final String LAST_MODIFIED_DATE = "lastModifiedDate";
-    public static final String DOB = "dob";
-    public static final String PWD_EXPIRY_DATE = "pwdExpiryDate";
-    public static final String INVALID_DATE_FORMAT_CODE = "INVALID_DATE_FORMAT";
-    public static final String INVALID_DATE_FORMAT_MESSAGE = "Failed to parse date format in user";
     public static final String CITIZEN_UPPER = "CITIZEN";
     public static final String CITIZEN_LOWER = "Citizen";
-    public static final String USER = "user";
 
     public static final String BUSINESS_SERVICE_NOT_FOUND = "BUSINESSSERVICE_NOT_FOUND";
     public static final String THE_BUSINESS_SERVICE = "The businessService ";
@@ -48,10 +42,92 @@ public class PGRConstants {
     public static final String USERTYPE_CITIZEN = "CITIZEN";
     public static final String MDMS_SERVICEDEF_SEARCH = "$.MdmsRes.RAINMAKER-PGR.ServiceDefs[?(@.serviceCode=='{SERVICEDEF}')]";
 
-    public static final String COMPLAINTS_RESOLVED = "complaintsResolved";
-    public static final String AVERAGE_RESOLUTION_TIME = "averageResolutionTime";
     public static final String PGR_WF_REOPEN = "REOPEN";
+    public static final String PGR_STATUS_CLOSED_AFTER_RESOLUTION = "CLOSEDAFTERRESOLUTION";
+    // Statuses whose SLA still runs, must match idx_eg_pgr_service_v2_open_sladeadline
+    public static final List<String> PGR_OPEN_STATUSES = Arrays.asList("PENDINGFORASSIGNMENT", "PENDINGATLME",
+            "PENDINGFORREASSIGNMENT", "PENDINGATSUPERVISOR");
+
+    public static final String CREATED_TIME = "createdTime";
+    public static final String EXPAND_CITIZEN = "citizen";
+    public static final String EXPAND_WORKFLOW = "workflow";
+    public static final String FIELD_ACCOUNT_ID = "accountId";
+    public static final String FIELD_APPLICATION_STATUS = "applicationStatus";
+    public static final String FIELD_LOCALITY = "locality";
+    public static final String FIELD_ADDRESS = "address";
+
+    public static final String ENRICHMENT_TIMEOUT_CODE = "ENRICHMENT_TIMEOUT";
+    public static final String ENRICHMENT_TIMEOUT_MESSAGE = "Enrichment from a dependent service did not complete in time";
+    public static final String ENRICHMENT_FAILED_CODE = "ENRICHMENT_FAILED";
+    public static final String ENRICHMENT_FAILED_MESSAGE = "Enrichment from a dependent service failed: ";
+
+    public static final String INVALID_CURSOR_MESSAGE = "The search cursor is invalid or was issued for a different sortBy or sortOrder";
+
+    public static final String BULK_ITEM_SUCCESSFUL = "SUCCESSFUL";
+    public static final String BULK_ITEM_FAILED = "FAILED";
+    public static final String BULK_CREATE_FAILED_CODE = "BULK_CREATE_FAILED";
+    public static final String BULK_CREATE_TOO_LARGE_MESSAGE = "The number of services in a bulk create can not exceed ";
+    public static final String WORKFLOW_STATE_MISSING_CODE = "WORKFLOW_ERROR";
+    public static final String WORKFLOW_STATE_MISSING_MESSAGE = "The workflow service did not return a state for the service request";
+    public static final String KAFKA_PUSH_FAILED_CODE = "KAFKA_PUSH_FAILED";
+    public static final String KAFKA_PUSH_FAILED_MESSAGE = "Failed to send the record to topic ";
+    public static final String KAFKA_ACK_TIMEOUT_MESSAGE = "The broker did not acknowledge the record in time on topic ";
+    public static final String KAFKA_BACKPRESSURE_CODE = "KAFKA_BACKPRESSURE";
+    public static final String KAFKA_BACKPRESSURE_MESSAGE = "Too many records are waiting to be sent to Kafka, retry later";
+    public static final String KAFKA_SPOOL_FAILED_CODE = "KAFKA_SPOOL_FAILED";
+    public static final String KAFKA_SPOOL_FULL_MESSAGE = "The local Kafka spool is full, retry later";
+    public static final String KAFKA_SPOOL_RECORD_TOO_LARGE_MESSAGE = "The record is larger than a spool segment";
+
+    public static final String JDBC_WRITE_FAILED_CODE = "DB_WRITE_FAILED";
+    public static final String JDBC_WRITE_FAILED_MESSAGE = "Failed to write the service request: ";
+    public static final String JDBC_WRITE_TIMEOUT_MESSAGE = "The service request was not written in time";
+    public static final String JDBC_WRITE_BACKPRESSURE_CODE = "DB_WRITE_BACKPRESSURE";
+    public static final String JDBC_WRITE_BACKPRESSURE_MESSAGE = "Too many service requests are waiting to be written, retry later";
+
+    public static final String DEPENDENCY_UNAVAILABLE_CODE = "DEPENDENCY_UNAVAILABLE";
+    public static final String DEPENDENCY_UNAVAILABLE_MESSAGE = "Calls to the %s service are suspended after repeated failures, retry later";
+    public static final String DEPENDENCY_BUSY_CODE = "DEPENDENCY_BUSY";
+    public static final String DEPENDENCY_BUSY_MESSAGE = "Too many calls to the %s service are in progress, retry later";
+    public static final String DEPENDENCY_ERROR_CODE = "DEPENDENCY_ERROR";
+    public static final String DEPENDENCY_ERROR_MESSAGE = "The %s service failed with status %d";
+    public static final String DEPENDENCY_TIMEOUT_CODE = "DEPENDENCY_TIMEOUT";
+    public static final String DEPENDENCY_TIMEOUT_MESSAGE = "The %s service could not be reached or did not respond in time";
+    public static final String DEPENDENCY_EMPTY_RESPONSE_MESSAGE = "The %s service returned an empty response";
+    public static final String DEPENDENCY_PARSING_ERROR_CODE = "PARSING_ERROR";
+    public static final String DEPENDENCY_PARSING_ERROR_MESSAGE = "Failed to parse the response of the %s service";
+
+    // Endpoints and phases of the pgr.request.phase timer
+    public static final String ENDPOINT_CREATE = "create";
+    public static final String ENDPOINT_BULK_CREATE = "bulkcreate";
+    public static final String ENDPOINT_UPDATE = "update";
+    public static final String ENDPOINT_SEARCH = "search";
+    public static final String ENDPOINT_COUNT = "count";
+    public static final String ENDPOINT_DYNAMIC_DATA = "dynamicdata";
+    public static final String PHASE_TOTAL = "total";
+    public static final String PHASE_VALIDATE = "validate";
+    public static final String PHASE_VALIDATE_MDMS = "validate.mdms";
+    public static final String PHASE_VALIDATE_DEPARTMENT = "validate.department";
+    public static final String PHASE_VALIDATE_EXISTING = "validate.existing";
+    public static final String PHASE_ENRICH = "enrich";
+    public static final String PHASE_ENRICH_USER = "enrich.user";
+    public static final String PHASE_ENRICH_IDGEN = "enrich.idgen";
+    public static final String PHASE_WORKFLOW = "workflow";
+    public static final String PHASE_WORKFLOW_BUSINESSSERVICE = "workflow.businessservice";
+    public static final String PHASE_WORKFLOW_TRANSITION = "workflow.transition";
+    public static final String PHASE_DB_WRITE = "db.write";
+    public static final String PHASE_KAFKA = "kafka";
+    public static final String PHASE_SEARCH = "search";
+    public static final String PHASE_SEARCH_USER = "search.user";
+    public static final String PHASE_SEARCH_WORKFLOW = "search.workflow";
+    public static final String PHASE_COUNT = "count";
+    public static final String PHASE_HTTP_PREFIX = "http.";
+    public static final String PHASE_DB_PREFIX = "db.";
+    public static final String STATEMENT_SEARCH = "search";
+    public static final String STATEMENT_COUNT = "count";
+    public static final String STATEMENT_DYNAMIC_DATA = "dynamicdata";
+    public static final String STATEMENT_INSERT = "insert";
+    public static final String STATEMENT_UPDATE = "update";
 
-    public static final String HRMS_DEPARTMENT_JSONPATH = "$.Employees.*.assignments.*.department";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
 
 }
@@ -0,0 +1,38 @@
+package digit.config;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+
+import static digit.config.PGRConstants.*;
+
+/**
+ * Reads the dates of the user service while its responses are deserialized.
+ * Timestamps come as dd-MM-yyyy HH:mm:ss, the date of birth as yyyy-MM-dd from
+ * search and update and as dd/MM/yyyy from create. ISO values are accepted as
+ * well. The formatters are built once and are thread safe.
+ */
+public class UserServiceDateModule extends SimpleModule {
+
+    public static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .appendOptional(DateTimeFormatter.ofPattern(DOB_FORMAT_D_M_Y_H_M_S))
+            .appendOptional(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+            .toFormatter();
+
+    public static final DateTimeFormatter DATE_FORMATTER = new DateTimeFormatterBuilder()
+            .appendOptional(DateTimeFormatter.ofPattern(DOB_FORMAT_Y_M_D))
+            .appendOptional(DateTimeFormatter.ofPattern(DOB_FORMAT_D_M_Y))
+            .toFormatter();
+
+    public UserServiceDateModule() {
+        super("UserServiceDateModule");
+        addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer(DATE_TIME_FORMATTER));
+        addDeserializer(LocalDate.class, new LocalDateDeserializer(DATE_FORMATTER));
+    }
+
+}
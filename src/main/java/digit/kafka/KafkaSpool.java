@@ -0,0 +1,409 @@
+package digit.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import digit.config.Configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.egov.tracer.model.CustomException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static digit.config.PGRConstants.*;
+
+/**
+ * Local append-only spool for Kafka records that could not be handed to the
+ * broker, so that a slow or unavailable broker does not lose complaints.
+ * <p>
+ * Records are appended to memory-mapped segment files of
+ * pgr.kafka.spool.segment.size.mb in pgr.kafka.spool.dir, each as
+ * [length][crc][topic][key][value]. The length is written last, so a record
+ * is either complete or absent after a crash. One drain thread sends the
+ * records to Kafka in the order they were appended, retrying the head record
+ * until the broker takes it, and checkpoints its position so a restart resumes
+ * where it stopped. A record may be sent twice if the pod stops between the
+ * send and the checkpoint.
+ * <p>
+ * While records are waiting, the producer spools new records as well instead
+ * of sending them, so records of one complaint are never reordered.
+ */
+@Slf4j
+@Component
+public class KafkaSpool {
+
+    private static final String SEGMENT_SUFFIX = ".spool";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final int HEADER_SIZE = 8;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Path directory;
+
+    private int segmentSize;
+
+    private long maxSegments;
+
+    private final AtomicLong pendingRecords = new AtomicLong();
+
+    private Counter appended;
+
+    private Counter drained;
+
+    // Write side, guarded by this
+    private long writeSegmentId;
+
+    private MappedByteBuffer writeBuffer;
+
+    // Read side, only changed by the drain thread
+    private volatile long readSegmentId;
+
+    private MappedByteBuffer readBuffer;
+
+    private FileChannel checkpointChannel;
+
+    private Thread drainer;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void openSpool() throws IOException {
+        if (!isEnabled())
+            return;
+
+        directory = Paths.get(config.getKafkaSpoolDir());
+        Files.createDirectories(directory);
+        segmentSize = Math.toIntExact(config.getKafkaSpoolSegmentSize() * 1024 * 1024);
+        maxSegments = Math.max(1, config.getKafkaSpoolMaxSize() / config.getKafkaSpoolSegmentSize());
+
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+
+        appended = Counter.builder("pgr.kafka.spool.appended").register(meterRegistry);
+        drained = Counter.builder("pgr.kafka.spool.drained").register(meterRegistry);
+        Gauge.builder("pgr.kafka.spool.pending", pendingRecords, AtomicLong::get)
+                .description("Records in the local spool waiting to be sent to Kafka")
+                .register(meterRegistry);
+
+        running = true;
+        drainer = new Thread(this::drain, "pgr-kafka-spool-drain");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void closeSpool() throws InterruptedException, IOException {
+        if (drainer == null)
+            return;
+        running = false;
+        drainer.interrupt();
+        drainer.join(TimeUnit.SECONDS.toMillis(10));
+        synchronized (this) {
+            writeBuffer.force();
+        }
+        checkpointChannel.close();
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(config.getKafkaSpoolEnabled());
+    }
+
+    /**
+     * True while records are waiting in the spool. New records must then be
+     * spooled too, so they are sent after the waiting ones.
+     */
+    public boolean hasPending() {
+        return pendingRecords.get() > 0;
+    }
+
+    /**
+     * Appends the record to the spool. Fails with KAFKA_BACKPRESSURE when the
+     * spool has reached pgr.kafka.spool.max.size.mb.
+     *
+     * @param topic The topic of the record
+     * @param key   The record key, may be null
+     * @param value The record value, serialized as JSON
+     */
+    public void append(String topic, String key, Object value) {
+        byte[] payload = encode(topic, key, value);
+        if (payload.length + HEADER_SIZE > segmentSize)
+            throw new CustomException(KAFKA_SPOOL_FAILED_CODE, KAFKA_SPOOL_RECORD_TOO_LARGE_MESSAGE);
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        synchronized (this) {
+            if (writeBuffer.remaining() < payload.length + HEADER_SIZE) {
+                if (writeSegmentId + 1 - readSegmentId >= maxSegments)
+                    throw new CustomException(KAFKA_BACKPRESSURE_CODE, KAFKA_SPOOL_FULL_MESSAGE);
+                writeBuffer.force();
+                writeSegmentId++;
+                writeBuffer = map(writeSegmentId);
+            }
+
+            int position = writeBuffer.position();
+            writeBuffer.position(position + HEADER_SIZE);
+            writeBuffer.put(payload);
+            writeBuffer.putInt(position + 4, (int) crc.getValue());
+            // The length goes in last, a record without it is not visible to the reader
+            writeBuffer.putInt(position, payload.length);
+
+            if (Boolean.TRUE.equals(config.getKafkaSpoolSync()))
+                writeBuffer.force();
+            pendingRecords.incrementAndGet();
+        }
+        appended.increment();
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                SpooledRecord record = readNext();
+                if (record == null) {
+                    Thread.sleep(config.getKafkaSpoolDrainInterval());
+                    continue;
+                }
+
+                kafkaTemplate.send(record.getTopic(), record.getKey(), mapper.readTree(record.getValue()))
+                        .get(config.getKafkaAckTimeout(), TimeUnit.MILLISECONDS);
+
+                advance(record);
+                pendingRecords.decrementAndGet();
+                drained.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Failed to send spooled record, retrying", e);
+                try {
+                    Thread.sleep(config.getKafkaSpoolDrainInterval());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the record at the read position, moving to the next segment when
+     * the current one is exhausted and fully written, or null if there is none
+     */
+    private SpooledRecord readNext() throws IOException {
+        while (true) {
+            long writeSegment;
+            synchronized (this) {
+                writeSegment = writeSegmentId;
+            }
+
+            SpooledRecord record = readAt(readBuffer);
+            if (record != null)
+                return record;
+            if (readSegmentId >= writeSegment)
+                return null;
+
+            // The segment is finished, everything in it was sent
+            Files.deleteIfExists(segmentPath(readSegmentId));
+            readSegmentId++;
+            readBuffer = map(readSegmentId);
+            checkpoint();
+        }
+    }
+
+    private void advance(SpooledRecord record) throws IOException {
+        readBuffer.position(readBuffer.position() + HEADER_SIZE + record.getLength());
+        checkpoint();
+    }
+
+    private SpooledRecord readAt(ByteBuffer buffer) {
+        int position = buffer.position();
+        if (buffer.limit() - position < HEADER_SIZE)
+            return null;
+
+        int length;
+        synchronized (this) {
+            length = buffer.getInt(position);
+        }
+        if (length <= 0 || length > buffer.limit() - position - HEADER_SIZE)
+            return null;
+
+        byte[] payload = new byte[length];
+        buffer.get(position + HEADER_SIZE, payload);
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(position + 4))
+            return null;
+
+        return decode(payload);
+    }
+
+    /**
+     * Restores the read position from the checkpoint, counts the records still
+     * waiting and finds the end of the last segment to continue writing there
+     */
+    private void recover() throws IOException {
+        List<Long> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        long checkpointSegment = segments.isEmpty() ? 0 : segments.get(0);
+        int checkpointPosition = 0;
+        ByteBuffer checkpoint = ByteBuffer.allocate(12);
+        if (checkpointChannel.read(checkpoint, 0) == 12) {
+            checkpoint.flip();
+            long segment = checkpoint.getLong();
+            int position = checkpoint.getInt();
+            if (segments.contains(segment)) {
+                checkpointSegment = segment;
+                checkpointPosition = position;
+            }
+        }
+
+        readSegmentId = checkpointSegment;
+        writeSegmentId = segments.isEmpty() ? checkpointSegment : Math.max(checkpointSegment, segments.get(segments.size() - 1));
+
+        // Segments before the checkpoint were sent already
+        for (Long segment : segments) {
+            if (segment < readSegmentId)
+                Files.deleteIfExists(segmentPath(segment));
+        }
+
+        long pending = 0;
+        for (long segment = readSegmentId; segment <= writeSegmentId; segment++) {
+            MappedByteBuffer buffer = map(segment);
+            if (segment == readSegmentId)
+                buffer.position(checkpointPosition);
+            SpooledRecord record;
+            while ((record = readAt(buffer)) != null) {
+                buffer.position(buffer.position() + HEADER_SIZE + record.getLength());
+                pending++;
+            }
+            if (segment == writeSegmentId) {
+                // Clear a torn record at the end so it is not read once overwritten partially
+                if (buffer.remaining() >= HEADER_SIZE)
+                    buffer.putInt(buffer.position(), 0);
+                writeBuffer = buffer;
+            }
+        }
+        pendingRecords.set(pending);
+
+        readBuffer = map(readSegmentId);
+        readBuffer.position(checkpointPosition);
+        if (pending > 0)
+            log.info("Resuming Kafka spool with " + pending + " records waiting");
+    }
+
+    private void checkpoint() throws IOException {
+        ByteBuffer checkpoint = ByteBuffer.allocate(12);
+        checkpoint.putLong(readSegmentId).putInt(readBuffer.position()).flip();
+        checkpointChannel.write(checkpoint, 0);
+    }
+
+    private MappedByteBuffer map(long segmentId) {
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%020d", segmentId) + SEGMENT_SUFFIX);
+    }
+
+    private byte[] encode(String topic, String key, Object value) {
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = key == null ? null : key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes;
+        try {
+            valueBytes = mapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new CustomException(KAFKA_SPOOL_FAILED_CODE, e.getMessage());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(2 + topicBytes.length + 4
+                + (keyBytes == null ? 0 : keyBytes.length) + valueBytes.length);
+        buffer.putShort((short) topicBytes.length).put(topicBytes);
+        buffer.putInt(keyBytes == null ? -1 : keyBytes.length);
+        if (keyBytes != null)
+            buffer.put(keyBytes);
+        buffer.put(valueBytes);
+        return buffer.array();
+    }
+
+    private SpooledRecord decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte[] topicBytes = new byte[buffer.getShort()];
+        buffer.get(topicBytes);
+        int keyLength = buffer.getInt();
+        String key = null;
+        if (keyLength >= 0) {
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(keyBytes);
+            key = new String(keyBytes, StandardCharsets.UTF_8);
+        }
+        byte[] value = new byte[buffer.remaining()];
+        buffer.get(value);
+        return new SpooledRecord(new String(topicBytes, StandardCharsets.UTF_8), key, value, payload.length);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class SpooledRecord {
+
+        private final String topic;
+
+        private final String key;
+
+        private final byte[] value;
+
+        private final int length;
+
+    }
+
+}
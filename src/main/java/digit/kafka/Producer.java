@@ -1,20 +1,342 @@
 package digit.kafka;
 
+import digit.config.Configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.egov.tracer.kafka.CustomKafkaTemplate;
+import org.egov.tracer.model.CustomException;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-// NOTE: If tracer is disabled change CustomKafkaTemplate to KafkaTemplate in autowiring
+import static digit.config.PGRConstants.*;
 
+/**
+ * Sends records to Kafka asynchronously.
+ * <ul>
+ * <li>At most pgr.kafka.producer.max.in.flight records are unacknowledged at a
+ * time. A send that can not get a slot within the acquire timeout is rejected
+ * with KAFKA_BACKPRESSURE instead of blocking the request thread.</li>
+ * <li>Sends to the topics in pgr.kafka.producer.wait.for.ack.topics wait for the
+ * broker's acknowledgement, sends to other topics return as soon as the record
+ * is handed to the producer. The request waits at most
+ * pgr.kafka.producer.ack.timeout.ms from the start of the push, whatever the
+ * producer's delivery.timeout.ms, and this budget covers the wait for an
+ * in-flight slot and for an earlier record of the key. A record still
+ * unacknowledged at the end of the budget fails the request, unless the spool
+ * is enabled: the record is then either delivered or spooled by the producer's
+ * callback, so the request succeeds.</li>
+ * <li>Send latency, failures, rejections and the in-flight count are published
+ * as the pgr.kafka.send* meters, tagged by topic.</li>
+ * <li>Every send is logged with the correlation id of the request, as the
+ * tracer's CustomKafkaTemplate did, with the record body when
+ * tracer.kafkaMessageLoggingEnabled is set. The tracer template is not used as
+ * it blocks on every send.</li>
+ * <li>With pgr.kafka.spool.enabled, a record that is rejected or fails to send
+ * is stored in the {@link KafkaSpool} and sent from there once the broker
+ * recovers, its future completes with a null result.</li>
+ * <li>Records of one key are handed to the producer one at a time: a record
+ * whose key has an unacknowledged record waits for its outcome. If that record
+ * failed and was spooled, the spool has records pending and the waiting record
+ * is spooled behind it, so create and update of a complaint are never
+ * reordered.</li>
+ * </ul>
+ */
 @Service
 @Slf4j
 public class Producer {
 
     @Autowired
-    private CustomKafkaTemplate<String, Object> kafkaTemplate;
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private KafkaSpool spool;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("kafkaSendExecutor")
+    private Executor kafkaSendExecutor;
+
+    private Semaphore inFlight;
+
+    private Set<String> waitForAckTopics;
+
+    private final Map<String, TopicMeters> topicMeters = new ConcurrentHashMap<>();
+
+    // The last record handed over for each key, removed once it is settled
+    private final Map<String, CompletableFuture<SendResult<String, Object>>> lastSendByKey = new ConcurrentHashMap<>();
 
-    public void push(String topic, Object value) {
-        kafkaTemplate.send(topic, value);
+    @PostConstruct
+    public void initProducer() {
+        inFlight = new Semaphore(config.getKafkaMaxInFlight());
+        waitForAckTopics = StringUtils.commaDelimitedListToSet(config.getKafkaWaitForAckTopics());
+
+        Gauge.builder("pgr.kafka.send.inflight", inFlight,
+                semaphore -> config.getKafkaMaxInFlight() - semaphore.availablePermits())
+                .description("Kafka records sent and not yet acknowledged")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends the value to the topic. Waits for the acknowledgement if the topic is
+     * configured to, otherwise the returned future completes when the broker
+     * acknowledges the record.
+     *
+     * @param topic The topic to send to
+     * @param key   The record key, records with the same key keep their order
+     * @param value The record value
+     * @return Future completing when the record is acknowledged
+     */
+    public CompletableFuture<SendResult<String, Object>> push(String topic, String key, Object value) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getKafkaAckTimeout());
+        CompletableFuture<SendResult<String, Object>> future = send(topic, key, value);
+        if (waitForAckTopics.contains(topic) || future.isCompletedExceptionally())
+            await(topic, future, deadline);
+        return future;
+    }
+
+    /**
+     * Sends every value to the topic without waiting for the previous record to be
+     * acknowledged, so the records of a batch share the producer's batches and
+     * round trips, which linger.ms sends without an explicit flush. The futures
+     * complete in the order of the values, a rejected record's future is already
+     * failed.
+     *
+     * @param topic     The topic to send to
+     * @param values    The record values
+     * @param keyMapper Returns the record key of a value
+     * @return One future per value, completing when the record is acknowledged
+     */
+    public <T> List<CompletableFuture<SendResult<String, Object>>> pushAll(String topic, List<T> values,
+            Function<T, String> keyMapper) {
+        return values.stream()
+                .map(value -> send(topic, keyMapper.apply(value), value))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Hands the record over right away, or once the previous record of its key is
+     * settled (acknowledged, failed or spooled)
+     */
+    private CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object value) {
+        if (key == null)
+            return sendNow(topic, key, value);
+
+        CompletableFuture<SendResult<String, Object>> result = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, Object>> previous = lastSendByKey.put(key, result);
+        boolean queued = previous != null && !previous.isDone();
+
+        CompletableFuture<SendResult<String, Object>> future = queued
+                ? previous.handle((ignored, e) -> null)
+                        .thenComposeAsync(ignored -> sendNow(topic, key, value), kafkaSendExecutor)
+                : sendNow(topic, key, value);
+
+        future.whenComplete((sendResult, e) -> {
+            lastSendByKey.remove(key, result);
+            if (e == null)
+                result.complete(sendResult);
+            else
+                result.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+        });
+        return result;
     }
+
+    private CompletableFuture<SendResult<String, Object>> sendNow(String topic, String key, Object value) {
+        // Records waiting in the spool go first, queue behind them to keep the order
+        if (spool.isEnabled() && spool.hasPending())
+            return toSpool(topic, key, value);
+
+        if (!acquire()) {
+            if (spool.isEnabled())
+                return toSpool(topic, key, value);
+            getMeters(topic).rejected.increment();
+            return CompletableFuture.failedFuture(new CustomException(KAFKA_BACKPRESSURE_CODE, KAFKA_BACKPRESSURE_MESSAGE));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, Object>> future;
+        try {
+            future = kafkaTemplate.send(topic, key, value);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        // The callback runs on the producer's thread, carry the request's correlation id over for the logs
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return future.handle((result, e) -> {
+            inFlight.release();
+            long nanos = System.nanoTime() - start;
+            TopicMeters meters = getMeters(topic);
+            (e == null ? meters.success : meters.failure).record(nanos, TimeUnit.NANOSECONDS);
+
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            setContext(context);
+            try {
+                if (e == null) {
+                    logSent(topic, key, value, nanos);
+                    return CompletableFuture.completedFuture(result);
+                }
+                log.error("Failed to send record with key " + key + " to topic " + topic, e);
+            } finally {
+                setContext(previous);
+            }
+            return spool.isEnabled() ? toSpool(topic, key, value)
+                    : CompletableFuture.<SendResult<String, Object>>failedFuture(e);
+        }).thenCompose(Function.identity());
+    }
+
+    private void logSent(String topic, String key, Object value, long nanos) {
+        if (Boolean.TRUE.equals(config.getKafkaMessageLoggingEnabled()))
+            log.info("Sent record with key " + key + " to topic " + topic + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms, body: " + value);
+        else if (log.isDebugEnabled())
+            log.debug("Sent record with key " + key + " to topic " + topic + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms");
+    }
+
+    private static void setContext(Map<String, String> context) {
+        if (context == null)
+            MDC.clear();
+        else
+            MDC.setContextMap(context);
+    }
+
+    /**
+     * Appends the record to the local spool, the returned future completes with a
+     * null result once the record is stored
+     */
+    private CompletableFuture<SendResult<String, Object>> toSpool(String topic, String key, Object value) {
+        try {
+            spool.append(topic, key, value);
+            getMeters(topic).spooled.increment();
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            getMeters(topic).rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private TopicMeters getMeters(String topic) {
+        return topicMeters.computeIfAbsent(topic, this::registerMeters);
+    }
+
+    private TopicMeters registerMeters(String topic) {
+        return new TopicMeters(
+                Timer.builder("pgr.kafka.send").tag("topic", topic).tag("outcome", "success").register(meterRegistry),
+                Timer.builder("pgr.kafka.send").tag("topic", topic).tag("outcome", "failure").register(meterRegistry),
+                Counter.builder("pgr.kafka.send.rejected").tag("topic", topic).register(meterRegistry),
+                Counter.builder("pgr.kafka.send.spooled").tag("topic", topic).register(meterRegistry));
+    }
+
+    private boolean acquire() {
+        try {
+            return inFlight.tryAcquire(config.getKafkaAcquireTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Waits for a record until the deadline. A record still in flight at the
+     * deadline is left to the producer when the spool is enabled, its failure is
+     * spooled by the send callback.
+     *
+     * @param topic    The topic the record was sent to
+     * @param future   The future of the record
+     * @param deadline The System.nanoTime by which the wait ends
+     */
+    public void await(String topic, CompletableFuture<SendResult<String, Object>> future, long deadline) {
+        try {
+            future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CustomException)
+                throw (CustomException) e.getCause();
+            throw new CustomException(KAFKA_PUSH_FAILED_CODE, KAFKA_PUSH_FAILED_MESSAGE + topic);
+        } catch (TimeoutException e) {
+            if (spool.isEnabled()) {
+                log.warn("Record to topic " + topic + " not acknowledged in time, it is spooled if it fails");
+                return;
+            }
+            throw new CustomException(KAFKA_PUSH_FAILED_CODE, KAFKA_ACK_TIMEOUT_MESSAGE + topic);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException(KAFKA_PUSH_FAILED_CODE, KAFKA_PUSH_FAILED_MESSAGE + topic);
+        }
+    }
+
+    /**
+     * Waits for the records of a batch once, all of them within one
+     * pgr.kafka.producer.ack.timeout.ms, and collects their outcomes as
+     * {@link #await} reports them
+     *
+     * @param topic   The topic the records were sent to
+     * @param futures The futures returned by {@link #pushAll}
+     * @return The failures, keyed by position in the list of futures
+     */
+    public Map<Integer, RuntimeException> awaitAll(String topic,
+            List<CompletableFuture<SendResult<String, Object>>> futures) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getKafkaAckTimeout());
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(config.getKafkaAckTimeout(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Collected per record below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                await(topic, futures.get(i), deadline);
+            } catch (CustomException e) {
+                failures.put(i, e);
+            }
+        }
+        return failures;
+    }
+
+    @AllArgsConstructor
+    private static class TopicMeters {
+
+        private final Timer success;
+
+        private final Timer failure;
+
+        private final Counter rejected;
+
+        private final Counter spooled;
+
+    }
+
 }
@@ -15,9 +15,13 @@ import digit.repository.queryBuilder.PGRQueryBuilder;
 import digit.repository.rowMapper.PGRRowMapper;
 import digit.service.UserService;
 import digit.service.WorkflowService;
+import digit.util.AsyncUtil;
 import digit.util.PGRUtils;
+import digit.util.RequestMetrics;
+import digit.util.SearchCursorUtil;
 import digit.web.models.PGREntity;
 import digit.web.models.RequestSearchCriteria;
+import digit.web.models.ResolutionStatistics;
 import digit.web.models.Service;
 
 import java.util.ArrayList;
@@ -26,6 +30,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Repository
@@ -50,6 +55,15 @@ public class PGRRepository {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SearchCursorUtil cursorUtil;
+
+    @Autowired
+    private AsyncUtil asyncUtil;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
     /**
      * searches services based on search criteria and then wraps it into
      * serviceWrappers
@@ -87,13 +101,46 @@ public class PGRRepository {
             return new ArrayList<>();
         }
 
-        // Enrich the service wrappers with user and workflow data
-        userService.enrichUsers(serviceWrappers);
-        List<PGREntity> enrichedServiceWrappers = workflowService.enrichWorkflow(requestInfo, serviceWrappers);
+        // A full page may have more rows after it, hand out a cursor positioned at its
+        // last row in SQL order, before the wrappers are regrouped below
+        if (criteria.getLimit() != null && serviceWrappers.size() >= criteria.getLimit()) {
+            PGREntity last = serviceWrappers.get(serviceWrappers.size() - 1);
+            criteria.setNextCursor(cursorUtil.encode(criteria, last.getService()));
+        }
+
+        // Enrich the service wrappers with user and workflow data, skipping the remote
+        // calls for the parts the caller did not ask for. The user lookup runs on the
+        // enrichment executor while workflow, which fans out per tenant on the same
+        // executor, runs here, so pool threads never wait on each other.
+        CompletableFuture<Void> userEnrichment = criteria.isExpanded(PGRConstants.EXPAND_CITIZEN)
+                ? asyncUtil.runAsync(() -> requestMetrics.time(PGRConstants.PHASE_SEARCH_USER,
+                        () -> userService.enrichUsers(serviceWrappers)))
+                : CompletableFuture.completedFuture(null);
+
+        List<PGREntity> enrichedServiceWrappers = serviceWrappers;
+        try {
+            if (criteria.isExpanded(PGRConstants.EXPAND_WORKFLOW))
+                enrichedServiceWrappers = requestMetrics.time(PGRConstants.PHASE_SEARCH_WORKFLOW,
+                        () -> workflowService.enrichWorkflow(requestInfo, serviceWrappers));
+        } catch (RuntimeException e) {
+            userEnrichment.cancel(true);
+            throw e;
+        }
+        asyncUtil.await(userEnrichment);
 
-        // Sort the enriched service wrappers by created time in descending order
+        return sortByCreatedTime(enrichedServiceWrappers);
+    }
+
+    /**
+     * Sorts the service wrappers by created time in descending order, wrappers
+     * created at the same time keep their order
+     *
+     * @param serviceWrappers The service wrappers to sort
+     * @return The sorted service wrappers
+     */
+    static List<PGREntity> sortByCreatedTime(List<PGREntity> serviceWrappers) {
         Map<Long, List<PGREntity>> sortedWrappers = new TreeMap<>(Collections.reverseOrder());
-        for (PGREntity pgrEntity : enrichedServiceWrappers) {
+        for (PGREntity pgrEntity : serviceWrappers) {
             Long createdTime = pgrEntity.getService().getAuditDetails().getCreatedTime();
             sortedWrappers.computeIfAbsent(createdTime, k -> new ArrayList<>()).add(pgrEntity);
         }
@@ -116,7 +163,9 @@ public class PGRRepository {
     public List<Service> getServices(RequestSearchCriteria criteria) {
         List<Object> preparedStmtList = new ArrayList<>();
         String query = queryBuilder.getPGRSearchQuery(criteria, preparedStmtList);
-        List<Service> services = jdbcTemplate.query(query, preparedStmtList.toArray(), rowMapper);
+        List<Service> services = requestMetrics.time(PGRConstants.PHASE_DB_PREFIX + PGRConstants.STATEMENT_SEARCH,
+                () -> jdbcTemplate.query(query, preparedStmtList.toArray(), rowMapper));
+        requestMetrics.addRows(services.size());
         return services;
     }
 
@@ -127,30 +176,33 @@ public class PGRRepository {
      * @return
      */
     public Integer getCount(RequestSearchCriteria criteria) {
+        // Same short circuit as getSortedServiceWrappers
+        if (criteria.isEmpty())
+            return 0;
+
         List<Object> preparedStmtList = new ArrayList<>();
         String query = queryBuilder.getCountQuery(criteria, preparedStmtList);
-        Integer count = jdbcTemplate.queryForObject(query, preparedStmtList.toArray(), Integer.class);
+        Integer count = requestMetrics.time(PGRConstants.PHASE_DB_PREFIX + PGRConstants.STATEMENT_COUNT,
+                () -> jdbcTemplate.queryForObject(query, preparedStmtList.toArray(), Integer.class));
         return count;
     }
 
-    public Map<String, Integer> fetchDynamicData(String tenantId) {
-        List<Object> preparedStmtListCompalintsResolved = new ArrayList<>();
-        String query = queryBuilder.getResolvedComplaints(tenantId, preparedStmtListCompalintsResolved);
-
-        int complaintsResolved = jdbcTemplate.queryForObject(query, preparedStmtListCompalintsResolved.toArray(),
-                Integer.class);
-
-        List<Object> preparedStmtListAverageResolutionTime = new ArrayList<>();
-        query = queryBuilder.getAverageResolutionTime(tenantId, preparedStmtListAverageResolutionTime);
-
-        int averageResolutionTime = jdbcTemplate.queryForObject(query, preparedStmtListAverageResolutionTime.toArray(),
-                Integer.class);
-
-        Map<String, Integer> dynamicData = new HashMap<String, Integer>();
-        dynamicData.put(PGRConstants.COMPLAINTS_RESOLVED, complaintsResolved);
-        dynamicData.put(PGRConstants.AVERAGE_RESOLUTION_TIME, averageResolutionTime);
-
-        return dynamicData;
+    /**
+     * Reads the dashboard statistics of the tenant in one query
+     *
+     * @param tenantId The tenant of the statistics
+     * @return The resolved complaints of the tenant
+     */
+    public ResolutionStatistics fetchDynamicData(String tenantId) {
+        List<Object> preparedStmtList = new ArrayList<>();
+        String query = queryBuilder.getResolutionStatisticsQuery(tenantId, preparedStmtList);
+
+        return requestMetrics.time(PGRConstants.PHASE_DB_PREFIX + PGRConstants.STATEMENT_DYNAMIC_DATA,
+                () -> jdbcTemplate.queryForObject(query, (rs, rowNum) -> ResolutionStatistics.builder()
+                        .resolvedInPeriod(rs.getLong("resolvedinperiod"))
+                        .resolvedTotal(rs.getLong("resolvedtotal"))
+                        .resolutionTimeTotal(rs.getLong("resolutiontimetotal"))
+                        .build(), preparedStmtList.toArray()));
     }
 
 }
@@ -0,0 +1,386 @@
+package digit.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import digit.config.Configuration;
+import digit.util.RequestMetrics;
+import digit.web.models.Address;
+import digit.web.models.PGREntity;
+import digit.web.models.Service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.egov.common.contract.models.AuditDetails;
+import org.egov.tracer.model.CustomException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static digit.config.PGRConstants.*;
+
+/**
+ * Writes service requests to the database directly, applying the same inserts
+ * and updates as persister.yml. Used when pgr.jdbc.write.enabled is set, for
+ * deployments that do not run egov-persister on the save and update topics.
+ * <p>
+ * Writes from concurrent requests are queued and applied by one writer thread
+ * in micro batches of up to pgr.jdbc.write.batch.size, each batch in a single
+ * transaction with one batchUpdate per statement. If a batch fails its writes
+ * are retried one by one, so only the failing write is reported.
+ * <p>
+ * A write that is still queued when its request stops waiting is withdrawn and
+ * never applied, so a request that reports a timeout has written nothing. A write
+ * the writer has already taken is waited for until it commits or its transaction
+ * times out.
+ */
+@Slf4j
+@Repository
+public class PGRWriteRepository {
+
+    private static final String INSERT_SERVICE_QUERY = "INSERT INTO eg_pgr_service_v2(id, tenantid, servicecode, "
+            + "servicerequestid, description, accountid, additionaldetails, applicationstatus, source, createdby, "
+            + "createdtime, lastmodifiedby, lastmodifiedtime, sla_deadline) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?::jsonb, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ADDRESS_QUERY = "INSERT INTO eg_pgr_address_v2(id, tenantid, parentid, doorno, "
+            + "plotno, buildingname, street, landmark, city, pincode, locality, district, region, state, country, "
+            + "latitude, longitude, additionaldetails, createdby, createdtime, lastmodifiedby, lastmodifiedtime) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SERVICE_QUERY = "UPDATE eg_pgr_service_v2 SET servicecode=?, servicerequestid=?, "
+            + "description=?, accountid=?, additionaldetails=?::jsonb, applicationstatus=?, lastmodifiedby=?, "
+            + "lastmodifiedtime=? WHERE id=?";
+
+    private static final String UPDATE_ADDRESS_QUERY = "UPDATE eg_pgr_address_v2 SET doorno=?, plotno=?, "
+            + "buildingname=?, street=?, landmark=?, city=?, pincode=?, locality=?, district=?, region=?, state=?, "
+            + "country=?, latitude=?, longitude=?, additionaldetails=?::jsonb, lastmodifiedby=?, lastmodifiedtime=? "
+            + "WHERE id=?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    private TransactionTemplate transactionTemplate;
+
+    private BlockingQueue<PendingWrite> queue;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void startWriter() {
+        if (!Boolean.TRUE.equals(config.getJdbcWriteEnabled()))
+            return;
+
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(config.getJdbcWriteTimeout())));
+        queue = new LinkedBlockingQueue<>(config.getJdbcWriteQueueCapacity());
+        running = true;
+        writer = new Thread(this::drain, "pgr-jdbc-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stopWriter() throws InterruptedException {
+        if (writer == null)
+            return;
+        running = false;
+        writer.interrupt();
+        writer.join(config.getJdbcWriteTimeout());
+    }
+
+    /**
+     * Inserts the service and its address and waits until the batch holding them
+     * is committed
+     *
+     * @param pgrEntity The created service request
+     */
+    public void save(PGREntity pgrEntity) {
+        await(enqueue(true, pgrEntity), getDeadline());
+    }
+
+    /**
+     * Inserts every service and its address, without waiting
+     *
+     * @param pgrEntities The created service requests
+     * @return One future per service request, completing when its batch is committed
+     */
+    public List<CompletableFuture<Void>> saveAll(List<PGREntity> pgrEntities) {
+        return pgrEntities.stream().map(pgrEntity -> enqueue(true, pgrEntity)).collect(Collectors.toList());
+    }
+
+    /**
+     * Updates the service and its address and waits until the batch holding them
+     * is committed
+     *
+     * @param pgrEntity The updated service request
+     */
+    public void update(PGREntity pgrEntity) {
+        await(enqueue(false, pgrEntity), getDeadline());
+    }
+
+    /**
+     * Waits for queued writes, all of them within one pgr.jdbc.write.timeout.ms,
+     * and collects their outcomes
+     *
+     * @param futures The futures returned by {@link #saveAll(List)}
+     * @return The failures, keyed by position in the list of futures
+     */
+    public Map<Integer, RuntimeException> awaitAll(List<CompletableFuture<Void>> futures) {
+        long deadline = getDeadline();
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(config.getJdbcWriteTimeout(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Collected per write below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                await(futures.get(i), deadline);
+            } catch (RuntimeException e) {
+                failures.put(i, e);
+            }
+        }
+        return failures;
+    }
+
+    private long getDeadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getJdbcWriteTimeout());
+    }
+
+    /**
+     * Waits for a queued write to be committed. If the write is not committed by
+     * the deadline and the writer has not taken it yet, it is withdrawn and the
+     * timeout is reported. A write already being applied is waited for, so the
+     * outcome reported is always the one in the database.
+     *
+     * @param future   The future of the write
+     * @param deadline The System.nanoTime by which the wait ends
+     */
+    private void await(CompletableFuture<Void> future, long deadline) {
+        try {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (future instanceof PendingWrite && ((PendingWrite) future).claim()) {
+                    CustomException timeout = new CustomException(JDBC_WRITE_FAILED_CODE, JDBC_WRITE_TIMEOUT_MESSAGE);
+                    future.completeExceptionally(timeout);
+                    throw timeout;
+                }
+                // Taken by the writer, bounded by the transaction timeout
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CustomException)
+                throw (CustomException) e.getCause();
+            throw new CustomException(JDBC_WRITE_FAILED_CODE, JDBC_WRITE_FAILED_MESSAGE + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomException(JDBC_WRITE_FAILED_CODE, JDBC_WRITE_TIMEOUT_MESSAGE);
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(boolean isCreate, PGREntity pgrEntity) {
+        PendingWrite write = new PendingWrite(isCreate, pgrEntity);
+        if (!queue.offer(write))
+            write.completeExceptionally(
+                    new CustomException(JDBC_WRITE_BACKPRESSURE_CODE, JDBC_WRITE_BACKPRESSURE_MESSAGE));
+        return write;
+    }
+
+    private void drain() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+
+                // Give concurrent requests a moment to join the batch
+                long lingerUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getJdbcWriteLinger());
+                while (batch.size() < config.getJdbcWriteBatchSize()) {
+                    PendingWrite next = queue.poll(Math.max(0, lingerUntil - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Stopping, write what was taken and drain the rest
+                queue.drainTo(batch);
+            }
+
+            // Writes whose request stopped waiting are dropped
+            batch.removeIf(write -> !write.claim());
+            if (!batch.isEmpty())
+                write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        try {
+            writeInTransaction(batch);
+            batch.forEach(write -> write.complete(null));
+        } catch (RuntimeException batchFailure) {
+            log.error("Batch of " + batch.size() + " writes failed, retrying one by one", batchFailure);
+            for (PendingWrite write : batch) {
+                try {
+                    writeInTransaction(Collections.singletonList(write));
+                    write.complete(null);
+                } catch (RuntimeException e) {
+                    write.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void writeInTransaction(List<PendingWrite> batch) {
+        List<Object[]> serviceInserts = new ArrayList<>();
+        List<Object[]> addressInserts = new ArrayList<>();
+        List<Object[]> serviceUpdates = new ArrayList<>();
+        List<Object[]> addressUpdates = new ArrayList<>();
+
+        for (PendingWrite write : batch) {
+            Service service = write.getPgrEntity().getService();
+            if (write.isCreate()) {
+                serviceInserts.add(getServiceInsertParams(service));
+                addressInserts.add(getAddressInsertParams(service));
+            } else {
+                serviceUpdates.add(getServiceUpdateParams(service));
+                addressUpdates.add(getAddressUpdateParams(service));
+            }
+        }
+
+        // Inserts go first so that a create and an update of the same service in one batch apply in order.
+        // The batches are written on the writer thread, outside of any request, so they are timed under endpoint none.
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!serviceInserts.isEmpty()) {
+                requestMetrics.time(PHASE_DB_PREFIX + STATEMENT_INSERT, () -> {
+                    jdbcTemplate.batchUpdate(INSERT_SERVICE_QUERY, serviceInserts);
+                    jdbcTemplate.batchUpdate(INSERT_ADDRESS_QUERY, addressInserts);
+                });
+            }
+            if (!serviceUpdates.isEmpty()) {
+                requestMetrics.time(PHASE_DB_PREFIX + STATEMENT_UPDATE, () -> {
+                    jdbcTemplate.batchUpdate(UPDATE_SERVICE_QUERY, serviceUpdates);
+                    jdbcTemplate.batchUpdate(UPDATE_ADDRESS_QUERY, addressUpdates);
+                });
+            }
+        });
+    }
+
+    private Object[] getServiceInsertParams(Service service) {
+        AuditDetails auditDetails = service.getAuditDetails();
+        return new Object[] { service.getId(), service.getTenantId(), service.getServiceCode(),
+                service.getServiceRequestId(), service.getDescription(), service.getAccountId(),
+                toJson(service.getAdditionalDetail()), service.getApplicationStatus(), service.getSource(),
+                auditDetails.getCreatedBy(), auditDetails.getCreatedTime(), auditDetails.getLastModifiedBy(),
+                auditDetails.getLastModifiedTime(), service.getSlaDeadline() };
+    }
+
+    private Object[] getAddressInsertParams(Service service) {
+        Address address = service.getAddress();
+        AuditDetails auditDetails = service.getAuditDetails();
+        return new Object[] { address.getId(), address.getTenantId(), service.getId(), address.getDoorNo(),
+                address.getPlotNo(), address.getBuildingName(), address.getStreet(), address.getLandmark(),
+                address.getCity(), address.getPincode(), address.getLocality().getCode(), address.getDistrict(),
+                address.getRegion(), address.getState(), address.getCountry(), address.getLocality().getLatitude(),
+                address.getLocality().getLongitude(), toJson(address.getAdditionDetails()),
+                auditDetails.getCreatedBy(), auditDetails.getCreatedTime(), auditDetails.getLastModifiedBy(),
+                auditDetails.getLastModifiedTime() };
+    }
+
+    private Object[] getServiceUpdateParams(Service service) {
+        AuditDetails auditDetails = service.getAuditDetails();
+        return new Object[] { service.getServiceCode(), service.getServiceRequestId(), service.getDescription(),
+                service.getAccountId(), toJson(service.getAdditionalDetail()), service.getApplicationStatus(),
+                auditDetails.getLastModifiedBy(), auditDetails.getLastModifiedTime(), service.getId() };
+    }
+
+    private Object[] getAddressUpdateParams(Service service) {
+        Address address = service.getAddress();
+        AuditDetails auditDetails = service.getAuditDetails();
+        return new Object[] { address.getDoorNo(), address.getPlotNo(), address.getBuildingName(),
+                address.getStreet(), address.getLandmark(), address.getCity(), address.getPincode(),
+                address.getLocality().getCode(), address.getDistrict(), address.getRegion(), address.getState(),
+                address.getCountry(), address.getLocality().getLatitude(), address.getLocality().getLongitude(),
+                toJson(address.getAdditionDetails()), auditDetails.getLastModifiedBy(),
+                auditDetails.getLastModifiedTime(), address.getId() };
+    }
+
+    /**
+     * Serializes a JSONB column the way the persister does, null stays null
+     */
+    private String toJson(Object value) {
+        if (value == null)
+            return null;
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new CustomException(JDBC_WRITE_FAILED_CODE, JDBC_WRITE_FAILED_MESSAGE + e.getMessage());
+        }
+    }
+
+    /**
+     * A queued write and its outcome. It is claimed once, either by the writer
+     * applying it or by the request withdrawing it after a timeout.
+     */
+    private static class PendingWrite extends CompletableFuture<Void> {
+
+        @Getter
+        private final boolean create;
+
+        @Getter
+        private final PGREntity pgrEntity;
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private PendingWrite(boolean create, PGREntity pgrEntity) {
+            this.create = create;
+            this.pgrEntity = pgrEntity;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+    }
+
+}
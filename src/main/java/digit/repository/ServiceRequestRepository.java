@@ -1,14 +1,18 @@
 package digit.repository;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import digit.util.OutboundDependencies;
 import lombok.extern.slf4j.Slf4j;
+import org.egov.tracer.model.CustomException;
 import org.egov.tracer.model.ServiceCallException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
 import java.util.Map;
 
 import static digit.config.PGRConstants.*;
@@ -17,28 +21,61 @@ import static digit.config.PGRConstants.*;
 @Slf4j
 public class ServiceRequestRepository {
 
-    private ObjectMapper mapper;
-
     private RestTemplate restTemplate;
 
+    private OutboundDependencies dependencies;
+
     @Autowired
-    public ServiceRequestRepository(ObjectMapper mapper, RestTemplate restTemplate) {
-        this.mapper = mapper;
+    public ServiceRequestRepository(RestTemplate restTemplate, OutboundDependencies dependencies) {
         this.restTemplate = restTemplate;
+        this.dependencies = dependencies;
     }
 
+    /**
+     * Posts the request and returns the response body as a generic map.
+     *
+     * @param uri     The url to post to
+     * @param request The request body
+     * @return The response body as a map
+     */
     public Object fetchResult(StringBuilder uri, Object request) {
-        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-        Object response = null;
+        return fetchResult(uri, request, Map.class);
+    }
+
+    /**
+     * Posts the request and binds the response body directly to the given type
+     * while it is read, properties the type does not declare are skipped. Never
+     * returns null, a call that fails or is refused by the dependency's circuit
+     * breaker or bulkhead throws an exception naming the dependency.
+     *
+     * @param uri          The url to post to
+     * @param request      The request body
+     * @param responseType The type to bind the response to
+     * @return The response body
+     */
+    public <T> T fetchResult(StringBuilder uri, Object request, Class<T> responseType) {
+        String dependency = dependencies.getName(URI.create(uri.toString()));
+        T response;
         try {
-            response = restTemplate.postForObject(uri.toString(), request, Map.class);
+            response = restTemplate.postForObject(uri.toString(), request, responseType);
         } catch (HttpClientErrorException e) {
             log.error(EXTERNAL_SERVICE_EXCEPTION, e);
             throw new ServiceCallException(e.getResponseBodyAsString());
-        } catch (Exception e) {
-            log.error(SEARCHER_SERVICE_EXCEPTION, e);
+        } catch (HttpServerErrorException e) {
+            log.error(EXTERNAL_SERVICE_EXCEPTION, e);
+            throw new CustomException(DEPENDENCY_ERROR_CODE,
+                    String.format(DEPENDENCY_ERROR_MESSAGE, dependency, e.getStatusCode().value()));
+        } catch (ResourceAccessException e) {
+            log.error(EXTERNAL_SERVICE_EXCEPTION, e);
+            throw new CustomException(DEPENDENCY_TIMEOUT_CODE, String.format(DEPENDENCY_TIMEOUT_MESSAGE, dependency));
+        } catch (RestClientException e) {
+            log.error(EXTERNAL_SERVICE_EXCEPTION, e);
+            throw new CustomException(DEPENDENCY_PARSING_ERROR_CODE,
+                    String.format(DEPENDENCY_PARSING_ERROR_MESSAGE, dependency));
         }
 
+        if (response == null)
+            throw new CustomException(DEPENDENCY_ERROR_CODE, String.format(DEPENDENCY_EMPTY_RESPONSE_MESSAGE, dependency));
         return response;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package digit.repository;
+
+import digit.config.Configuration;
+
+import digit.util.ServiceDefCatalogue;
+import lombok.extern.slf4j.Slf4j;
+import org.egov.common.contract.request.RequestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+
+/**
+ * Sets sla_deadline on the rows created before the column existed, to created
+ * time plus the slaHours of their service code, resolved per tenant through the
+ * service definition catalogue since MDMS can not be read from a migration.
+ * Rows are updated in small transactions on a background thread, so the table is
+ * never locked or rewritten as a whole. Rows locked by another pod running the
+ * same backfill are skipped, and a restart resumes where the last batch stopped.
+ * <p>
+ * Until no row is left without a deadline, breached searches also match rows
+ * without one, see {@link #isComplete()}.
+ */
+@Slf4j
+@Repository
+public class SlaDeadlineBackfill {
+
+    private static final String MISSING_QUERY = "SELECT EXISTS (SELECT 1 FROM eg_pgr_service_v2 WHERE sla_deadline IS NULL)";
+
+    private static final String SERVICE_CODES_QUERY = "SELECT DISTINCT tenantid, servicecode FROM eg_pgr_service_v2 "
+            + "WHERE sla_deadline IS NULL";
+
+    private static final String BACKFILL_QUERY = "UPDATE eg_pgr_service_v2 SET sla_deadline = createdtime + ? "
+            + "WHERE id IN (SELECT id FROM eg_pgr_service_v2 WHERE sla_deadline IS NULL AND tenantid = ? "
+            + "AND servicecode = ? LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private ServiceDefCatalogue serviceDefCatalogue;
+
+    private Thread worker;
+
+    private volatile boolean complete;
+
+    /**
+     * @return Whether every row had a deadline when this pod checked, at startup
+     *         or at the end of its backfill
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        try {
+            complete = !Boolean.TRUE.equals(jdbcTemplate.queryForObject(MISSING_QUERY, Boolean.class));
+        } catch (RuntimeException e) {
+            log.error("Failed to check for rows without an SLA deadline", e);
+        }
+        if (complete || !Boolean.TRUE.equals(config.getSlaBackfillEnabled()))
+            return;
+
+        worker = new Thread(this::backfill, "pgr-sla-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stopBackfill() {
+        if (worker != null)
+            worker.interrupt();
+    }
+
+    private void backfill() {
+        long total = 0;
+        try {
+            for (Map<String, Object> row : jdbcTemplate.queryForList(SERVICE_CODES_QUERY)) {
+                String tenantId = (String) row.get("tenantid");
+                String serviceCode = (String) row.get("servicecode");
+                long sla;
+                try {
+                    sla = serviceDefCatalogue.getSla(new RequestInfo(), tenantId, serviceCode);
+                } catch (RuntimeException e) {
+                    // Left without a deadline, so the fallback stays on until a later start resolves it
+                    log.error("Failed to resolve the SLA of " + serviceCode + " for " + tenantId
+                            + ", its rows are backfilled on the next start", e);
+                    continue;
+                }
+                total += backfill(tenantId, serviceCode, sla);
+            }
+            // Rows locked by another pod are skipped, only an empty table ends the fallback
+            complete = !Boolean.TRUE.equals(jdbcTemplate.queryForObject(MISSING_QUERY, Boolean.class));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("SLA deadline backfill stopped after " + total + " rows, it resumes on the next start", e);
+            return;
+        }
+        if (total > 0)
+            log.info("Backfilled the SLA deadline of " + total + " service requests");
+    }
+
+    private long backfill(String tenantId, String serviceCode, long sla) throws InterruptedException {
+        long total = 0;
+        while (true) {
+            if (Thread.currentThread().isInterrupted())
+                throw new InterruptedException();
+            int updated = jdbcTemplate.update(BACKFILL_QUERY, sla, tenantId, serviceCode,
+                    config.getSlaBackfillBatchSize());
+            if (updated == 0)
+                return total;
+            total += updated;
+            Thread.sleep(config.getSlaBackfillPause());
+        }
+    }
+
+}
@@ -4,17 +4,25 @@ import org.egov.tracer.model.CustomException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.StringUtils;
 
 import digit.config.Configuration;
 import digit.config.ErrorConstants;
+import digit.repository.SlaDeadlineBackfill;
+import digit.util.SearchCursorUtil;
 import digit.web.models.RequestSearchCriteria;
+import digit.web.models.SearchCursor;
 
 import java.time.Instant;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static digit.config.PGRConstants.*;
 
 @Repository
 public class PGRQueryBuilder {
@@ -25,6 +33,15 @@ public class PGRQueryBuilder {
     @Autowired
     private ErrorConstants errorConstants;
 
+    @Autowired
+    private SearchCursorUtil cursorUtil;
+
+    @Autowired
+    private SlaDeadlineBackfill slaDeadlineBackfill;
+
+    private static final String OPEN_STATUS_CLAUSE = " ser.applicationstatus IN ("
+            + PGR_OPEN_STATUSES.stream().map(status -> "'" + status + "'").collect(Collectors.joining(", ")) + ") ";
+
     private static final String QUERY_ALIAS = "ser.id as ser_id,ads.id as ads_id," +
             "ser.tenantId as ser_tenantId,ads.tenantId as ads_tenantId," +
             "ser.additionaldetails as ser_additionaldetails,ads.additionaldetails as ads_additionaldetails," +
@@ -33,19 +50,108 @@ public class PGRQueryBuilder {
             "ads.createdby as ads_createdby,ads.createdtime as ads_createdtime," +
             "ads.lastmodifiedby as ads_lastmodifiedby,ads.lastmodifiedtime as ads_lastmodifiedtime ";
 
+    private static final String ADDRESS_JOIN = " INNER JOIN eg_pgr_address_v2 ads ON ads.parentId = ser.id ";
+
     private static final String QUERY = "select ser.*,ads.*," + QUERY_ALIAS +
-            " from eg_pgr_service_v2 ser INNER JOIN eg_pgr_address_v2 ads" +
-            " ON ads.parentId = ser.id ";
+            " from eg_pgr_service_v2 ser" + ADDRESS_JOIN;
+
+    // Columns always read by a sparse search, needed for identity, sorting and workflow lookup
+    private static final String SPARSE_QUERY_KEYS = "select ser.id as ser_id,ser.tenantId as ser_tenantId," +
+            "ser.serviceRequestId,ser.createdtime as ser_createdtime";
+
+    private static final Map<String, String> FIELD_COLUMNS = Map.of(
+            "serviceCode", "ser.serviceCode",
+            "description", "ser.description",
+            FIELD_ACCOUNT_ID, "ser.accountId",
+            "additionalDetail", "ser.additionaldetails as ser_additionaldetails",
+            FIELD_APPLICATION_STATUS, "ser.applicationStatus",
+            "slaDeadline", "ser.sla_deadline",
+            "source", "ser.source",
+            "auditDetails", "ser.createdby as ser_createdby,ser.lastmodifiedby as ser_lastmodifiedby," +
+                    "ser.lastmodifiedtime as ser_lastmodifiedtime",
+            FIELD_LOCALITY, "ads.locality",
+            FIELD_ADDRESS, "ads.*,ads.id as ads_id,ads.tenantId as ads_tenantId," +
+                    "ads.additionaldetails as ads_additionaldetails");
+
+    private static final Set<String> KEY_FIELDS = Set.of("id", "tenantId", "serviceRequestId");
+
+    private static final String COUNT_QUERY = "select count(*) from eg_pgr_service_v2 ser";
+
+    // Both dashboard aggregates in one pass over the resolved complaints of the tenant
+    private static final String RESOLUTION_STATISTICS_QUERY = "select count(*) filter (where lastmodifiedtime>?) as resolvedinperiod, "
+            + "count(*) as resolvedtotal, coalesce(sum(lastmodifiedtime-createdtime),0) as resolutiontimetotal "
+            + "from eg_pgr_service_v2 where applicationstatus='CLOSEDAFTERRESOLUTION' and tenantid=? ";
 
-    private static final String COUNT_WRAPPER = "select count(*) from ({INTERNAL_QUERY}) as count";
+    public String getPGRSearchQuery(RequestSearchCriteria criteria, List<Object> preparedStmtList) {
 
-    private static final String RESOLVED_COMPLAINTS_QUERY = "select count(*) from eg_pgr_service_v2 where applicationstatus='CLOSEDAFTERRESOLUTION' and tenantid=? and lastmodifiedtime>? ";
+        StringBuilder builder = new StringBuilder(criteria.getFields() == null ? QUERY : getSparseQuery(criteria));
 
-    private static final String AVERAGE_RESOLUTION_TIME_QUERY = "select round(avg(lastmodifiedtime-createdtime)/86400000) from eg_pgr_service_v2 where applicationstatus='CLOSEDAFTERRESOLUTION' and tenantid=? ";
+        addFilterClauses(criteria, builder, preparedStmtList);
 
-    public String getPGRSearchQuery(RequestSearchCriteria criteria, List<Object> preparedStmtList) {
+        if (criteria.getCursor() != null)
+            addSeekClause(builder, criteria, preparedStmtList);
+
+        addOrderByClause(builder, criteria);
+
+        addLimitAndOffset(builder, criteria, preparedStmtList);
+
+        return builder.toString();
+    }
+
+    /**
+     * Builds a bare count over the search filters. Ordering and paging do not
+     * change the count so they are left out, and the address table is joined only
+     * when a locality filter needs it
+     */
+    public String getCountQuery(RequestSearchCriteria criteria, List<Object> preparedStmtList) {
+
+        StringBuilder builder = new StringBuilder(COUNT_QUERY);
 
-        StringBuilder builder = new StringBuilder(QUERY);
+        if (!CollectionUtils.isEmpty(criteria.getLocality()))
+            builder.append(ADDRESS_JOIN);
+
+        addFilterClauses(criteria, builder, preparedStmtList);
+
+        return builder.toString();
+    }
+
+    /**
+     * Builds the select list for a search that asked only for some fields. Fields
+     * the search itself depends on (sort key, accountId for citizen enrichment) are
+     * always added, and the address table is joined only when it is read or filtered on
+     */
+    private String getSparseQuery(RequestSearchCriteria criteria) {
+
+        Set<String> fields = new LinkedHashSet<>(criteria.getFields());
+
+        if (criteria.isExpanded(EXPAND_CITIZEN))
+            fields.add(FIELD_ACCOUNT_ID);
+        if (criteria.getSortBy() == RequestSearchCriteria.SortBy.locality)
+            fields.add(FIELD_LOCALITY);
+        if (criteria.getSortBy() == RequestSearchCriteria.SortBy.applicationStatus)
+            fields.add(FIELD_APPLICATION_STATUS);
+
+        StringBuilder builder = new StringBuilder(SPARSE_QUERY_KEYS);
+        for (String field : fields) {
+            if (KEY_FIELDS.contains(field))
+                continue;
+            String columns = FIELD_COLUMNS.get(field);
+            if (columns == null)
+                throw new CustomException(errorConstants.INVALID_SEARCH, "The field: " + field + " is not supported");
+            builder.append(",").append(columns);
+        }
+
+        builder.append(" from eg_pgr_service_v2 ser");
+
+        if (fields.contains(FIELD_LOCALITY) || fields.contains(FIELD_ADDRESS)
+                || !CollectionUtils.isEmpty(criteria.getLocality()))
+            builder.append(ADDRESS_JOIN);
+
+        return builder.toString();
+    }
+
+    private void addFilterClauses(RequestSearchCriteria criteria, StringBuilder builder,
+            List<Object> preparedStmtList) {
 
         if (criteria.getIsPlainSearch() != null && criteria.getIsPlainSearch()) {
             Set<String> tenantIds = criteria.getTenantIds();
@@ -98,20 +204,42 @@ public class PGRQueryBuilder {
             addToPreparedStatement(preparedStmtList, ids);
         }
 
+        // The age filters compare createdtime against bounds computed once here, so they are range
+        // scans on createdtime rather than an expression evaluated for every row.
+        long now = System.currentTimeMillis();
+
         // When UI tries to fetch "escalated" complaints count.
         if (criteria.getSlaDeltaMaxLimit() != null && criteria.getSlaDeltaMinLimit() == null) {
             addClauseIfRequired(preparedStmtList, builder);
-            builder.append(" ((extract(epoch FROM NOW())*1000) - ser.createdtime) > ? ");
-            preparedStmtList.add(criteria.getSlaDeltaMaxLimit());
+            builder.append(" ser.createdtime < ? ");
+            preparedStmtList.add(now - criteria.getSlaDeltaMaxLimit());
         }
         // When UI tries to fetch "other" complaints count.
         if (criteria.getSlaDeltaMaxLimit() != null && criteria.getSlaDeltaMinLimit() != null) {
             addClauseIfRequired(preparedStmtList, builder);
-            builder.append(" ((extract(epoch FROM NOW())*1000) - ser.createdtime) > ? ");
-            preparedStmtList.add(criteria.getSlaDeltaMinLimit());
+            builder.append(" ser.createdtime < ? ");
+            preparedStmtList.add(now - criteria.getSlaDeltaMinLimit());
+            addClauseIfRequired(preparedStmtList, builder);
+            builder.append(" ser.createdtime > ? ");
+            preparedStmtList.add(now - criteria.getSlaDeltaMaxLimit());
+        }
+
+        // Only open complaints breach their SLA. The status list is inlined so the planner matches the partial
+        // index on it, and the deadline is a single range on that index once the backfill is complete. Until
+        // then rows without a deadline are taken as created time plus the default SLA.
+        if (criteria.getBreached() != null) {
             addClauseIfRequired(preparedStmtList, builder);
-            builder.append(" ((extract(epoch FROM NOW())*1000) - ser.createdtime) < ? ");
-            preparedStmtList.add(criteria.getSlaDeltaMaxLimit());
+            builder.append(OPEN_STATUS_CLAUSE).append(" AND");
+            String operator = criteria.getBreached() ? "<" : ">=";
+            if (slaDeadlineBackfill.isComplete()) {
+                builder.append(" ser.sla_deadline ").append(operator).append(" ? ");
+                preparedStmtList.add(now);
+            } else {
+                builder.append(" (ser.sla_deadline ").append(operator).append(" ? OR (ser.sla_deadline IS NULL AND ")
+                        .append("ser.createdtime ").append(operator).append(" ?)) ");
+                preparedStmtList.add(now);
+                preparedStmtList.add(now - TimeUnit.HOURS.toMillis(config.getDefaultSlaHours()));
+            }
         }
 
         Set<String> userIds = criteria.getUserIds();
@@ -147,46 +275,58 @@ public class PGRQueryBuilder {
                 throw new CustomException(errorConstants.INVALID_SEARCH, "Cannot specify to-Date without a from-Date");
             }
         }
+    }
 
-        addOrderByClause(builder, criteria);
-
-        addLimitAndOffset(builder, criteria, preparedStmtList);
+    /**
+     * Adds the keyset predicate that continues a search right after the row the
+     * cursor points at, so deep pages do not have to skip earlier rows
+     */
+    private void addSeekClause(StringBuilder builder, RequestSearchCriteria criteria,
+            List<Object> preparedStmtList) {
 
-        return builder.toString();
-    }
+        SearchCursor cursor = cursorUtil.decode(criteria);
 
-    public String getCountQuery(RequestSearchCriteria criteria, List<Object> preparedStmtList) {
-        String query = getPGRSearchQuery(criteria, preparedStmtList);
-        String countQuery = COUNT_WRAPPER.replace("{INTERNAL_QUERY}", query);
-        return countQuery;
+        addClauseIfRequired(preparedStmtList, builder);
+        builder.append(" (").append(getSortColumn(criteria)).append(", ser.id) ");
+        builder.append(criteria.getSortOrder() == RequestSearchCriteria.SortOrder.ASC ? ">" : "<");
+        builder.append(" (?, ?) ");
+        preparedStmtList.add(cursor.getValue());
+        preparedStmtList.add(cursor.getId());
     }
 
     private void addOrderByClause(StringBuilder builder, RequestSearchCriteria criteria) {
 
-        if (StringUtils.isEmpty(criteria.getSortBy()))
-            builder.append(" ORDER BY ser_createdtime ");
+        String sortOrder = criteria.getSortOrder() == RequestSearchCriteria.SortOrder.ASC ? " ASC " : " DESC ";
 
-        else if (criteria.getSortBy() == RequestSearchCriteria.SortBy.locality)
-            builder.append(" ORDER BY ads.locality ");
+        // ser.id breaks ties so that the order, and hence the cursor, is deterministic
+        builder.append(" ORDER BY ").append(getSortColumn(criteria)).append(sortOrder);
+        builder.append(", ser.id").append(sortOrder);
+
+    }
+
+    // Nullable keys sort as an empty string, so the seek predicate compares them like any other value
+    private String getSortColumn(RequestSearchCriteria criteria) {
+
+        if (criteria.getSortBy() == RequestSearchCriteria.SortBy.locality)
+            return "COALESCE(ads.locality, '')";
 
         else if (criteria.getSortBy() == RequestSearchCriteria.SortBy.applicationStatus)
-            builder.append(" ORDER BY ser.applicationStatus ");
+            return "COALESCE(ser.applicationStatus, '')";
 
         else if (criteria.getSortBy() == RequestSearchCriteria.SortBy.serviceRequestId)
-            builder.append(" ORDER BY ser.serviceRequestId ");
-
-        if (criteria.getSortOrder() == RequestSearchCriteria.SortOrder.ASC)
-            builder.append(" ASC ");
-        else
-            builder.append(" DESC ");
+            return "ser.serviceRequestId";
 
+        return "ser.createdtime";
     }
 
     private void addLimitAndOffset(StringBuilder builder, RequestSearchCriteria criteria,
             List<Object> preparedStmtList) {
 
-        builder.append(" OFFSET ? ");
-        preparedStmtList.add(criteria.getOffset());
+        // A cursor already positions the page, OFFSET is only kept for clients that page by number
+        if (criteria.getCursor() == null) {
+            builder.append(" OFFSET ? ");
+            preparedStmtList.add(criteria.getOffset());
+        }
 
         builder.append(" LIMIT ? ");
         preparedStmtList.add(criteria.getLimit());
@@ -218,37 +358,26 @@ public class PGRQueryBuilder {
         });
     }
 
-    public String getResolvedComplaints(String tenantId, List<Object> preparedStmtListComplaintsResolved) {
-
-        StringBuilder query = new StringBuilder("");
-        query.append(RESOLVED_COMPLAINTS_QUERY);
-
-        preparedStmtListComplaintsResolved.add(tenantId);
-
-        // In order to get data of last 12 months, the months variables is
-        // pre-configured in application properties
+    /**
+     * Returns the query for the dashboard statistics of a tenant: the complaints
+     * closed after resolution within the last egov.dynamicdata.period days, and
+     * the count and summed resolution time of all of them
+     *
+     * @param tenantId         The tenant of the statistics
+     * @param preparedStmtList The list the query parameters are added to
+     * @return The query
+     */
+    public String getResolutionStatisticsQuery(String tenantId, List<Object> preparedStmtList) {
+        // The period is pre-configured in days in application properties
         int days = Integer.valueOf(config.getNumberOfDays());
 
         Calendar calendar = Calendar.getInstance();
-
-        // To subtract 12 months from current time, we are adding -12 to the calendar
-        // instance, as subtract function is not in-built
         calendar.add(Calendar.DATE, -1 * days);
 
-        // Converting the timestamp to milliseconds and adding it to prepared statement
-        // list
-        preparedStmtListComplaintsResolved.add(calendar.getTimeInMillis());
-
-        return query.toString();
-    }
-
-    public String getAverageResolutionTime(String tenantId, List<Object> preparedStmtListAverageResolutionTime) {
-        StringBuilder query = new StringBuilder("");
-        query.append(AVERAGE_RESOLUTION_TIME_QUERY);
-
-        preparedStmtListAverageResolutionTime.add(tenantId);
+        preparedStmtList.add(calendar.getTimeInMillis());
+        preparedStmtList.add(tenantId);
 
-        return query.toString();
+        return RESOLUTION_STATISTICS_QUERY;
     }
 
 }
@@ -18,11 +18,14 @@ import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Repository
 public class PGRRowMapper implements ResultSetExtractor<List<Service>> {
@@ -34,6 +37,9 @@ public class PGRRowMapper implements ResultSetExtractor<List<Service>> {
 
         Map<String, Service> serviceMap = new LinkedHashMap<>();
 
+        // Sparse searches select only some columns, so read what the query returned
+        Set<String> columns = getColumnLabels(rs);
+
         while (rs.next()) {
 
             String id = rs.getString("ser_id");
@@ -44,20 +50,20 @@ public class PGRRowMapper implements ResultSetExtractor<List<Service>> {
             if (currentService == null) {
 
                 id = rs.getString("ser_id");
-                String serviceCode = rs.getString("serviceCode");
+                String serviceCode = getString(rs, columns, "serviceCode");
                 String serviceRequestId = rs.getString("serviceRequestId");
-                String description = rs.getString("description");
-                String accountId = rs.getString("accountId");
-                String applicationStatus = rs.getString("applicationStatus");
-                String source = rs.getString("source");
-                String createdby = rs.getString("ser_createdby");
+                String description = getString(rs, columns, "description");
+                String accountId = getString(rs, columns, "accountId");
+                String applicationStatus = getString(rs, columns, "applicationStatus");
+                String source = getString(rs, columns, "source");
+                String createdby = getString(rs, columns, "ser_createdby");
                 Long createdtime = rs.getLong("ser_createdtime");
-                String lastmodifiedby = rs.getString("ser_lastmodifiedby");
-                Long lastmodifiedtime = rs.getLong("ser_lastmodifiedtime");
-                Integer rating = rs.getInt("rating");
-                if (rs.wasNull()) {
-                    rating = null;
-                }
+                String lastmodifiedby = getString(rs, columns, "ser_lastmodifiedby");
+                Long lastmodifiedtime = columns.contains("ser_lastmodifiedtime") ? rs.getLong("ser_lastmodifiedtime")
+                        : null;
+                // Rows written before the column existed and not yet backfilled read as null
+                Long slaDeadline = columns.contains("sla_deadline") ? rs.getObject("sla_deadline", Long.class)
+                        : null;
 
                 AuditDetails auditDetails = AuditDetails.builder().createdBy(createdby).createdTime(createdtime)
                         .lastModifiedBy(lastmodifiedby).lastModifiedTime(lastmodifiedtime).build();
@@ -71,17 +77,20 @@ public class PGRRowMapper implements ResultSetExtractor<List<Service>> {
                         .source(source)
                         .tenantId(tenantId)
                         .auditDetails(auditDetails)
+                        .slaDeadline(slaDeadline)
                         .build();
 
-                JsonNode additionalDetails = getAdditionalDetail("ser_additionaldetails", rs);
+                if (columns.contains("ser_additionaldetails")) {
+                    JsonNode additionalDetails = getAdditionalDetail("ser_additionaldetails", rs);
 
-                if (additionalDetails != null)
-                    currentService.setAdditionalDetail(additionalDetails);
+                    if (additionalDetails != null)
+                        currentService.setAdditionalDetail(additionalDetails);
+                }
 
                 serviceMap.put(currentService.getId(), currentService);
 
             }
-            addChildrenToProperty(rs, currentService);
+            addChildrenToProperty(rs, columns, currentService);
 
         }
 
@@ -89,9 +98,12 @@ public class PGRRowMapper implements ResultSetExtractor<List<Service>> {
 
     }
 
-    private void addChildrenToProperty(ResultSet rs, Service service) throws SQLException {
+    private void addChildrenToProperty(ResultSet rs, Set<String> columns, Service service) throws SQLException {
 
-        if (service.getAddress() == null) {
+        if (service.getAddress() != null)
+            return;
+
+        if (columns.contains("ads_id")) {
 
             Double latitude = rs.getDouble("latitude");
             Double longitude = rs.getDouble("longitude");
@@ -119,8 +131,27 @@ public class PGRRowMapper implements ResultSetExtractor<List<Service>> {
 
             service.setAddress(address);
 
+        } else if (columns.contains("locality")) {
+
+            // Only the locality was asked for
+            Boundary locality = Boundary.builder().code(rs.getString("locality")).build();
+            service.setAddress(Address.builder().locality(locality).build());
+
+        }
+
+    }
+
+    private Set<String> getColumnLabels(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        Set<String> columns = new HashSet<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            columns.add(metaData.getColumnLabel(i).toLowerCase());
         }
+        return columns;
+    }
 
+    private String getString(ResultSet rs, Set<String> columns, String column) throws SQLException {
+        return columns.contains(column.toLowerCase()) ? rs.getString(column) : null;
     }
 
     private JsonNode getAdditionalDetail(String columnName, ResultSet rs) {
@@ -0,0 +1,122 @@
+package digit.service;
+
+import digit.config.Configuration;
+import digit.config.PGRConstants;
+import digit.repository.PGRRepository;
+import digit.util.AsyncUtil;
+import digit.util.RefreshAheadCache;
+import digit.util.RequestMetrics;
+import digit.util.ResponseInfoFactory;
+import digit.web.models.DynamicDataResponse;
+import digit.web.models.ResolutionStatistics;
+import digit.web.models.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.egov.common.contract.models.AuditDetails;
+import org.egov.common.contract.request.RequestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard statistics per tenant, served from a cache that is refreshed in the
+ * background. A complaint closed after resolution on this pod is added to the
+ * cached statistics at once. Closures on other pods, and complaints that fall
+ * out of the period, are picked up by the next refresh.
+ */
+@Component
+public class DynamicDataService {
+
+    @Autowired
+    private PGRRepository pgrRepository;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private AsyncUtil asyncUtil;
+
+    @Autowired
+    @Qualifier("cacheRefreshExecutor")
+    private Executor cacheRefreshExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ResponseInfoFactory responseInfoFactory;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    private RefreshAheadCache<String, ResolutionStatistics> statistics;
+
+    @PostConstruct
+    public void initStatisticsCache() {
+        statistics = new RefreshAheadCache<>("pgr.dynamicdata",
+                Duration.ofSeconds(config.getDynamicDataCacheTtl()),
+                Duration.ofSeconds(config.getDynamicDataCacheRefresh()),
+                1000, asyncUtil, cacheRefreshExecutor, meterRegistry);
+    }
+
+    /**
+     * Returns the complaints of the tenant resolved within the configured period
+     * and their average resolution time in days
+     *
+     * @param requestInfo The request information
+     * @param tenantId    The tenant of the statistics
+     * @return The statistics of the tenant
+     */
+    public DynamicDataResponse getDynamicData(RequestInfo requestInfo, String tenantId) {
+        try (RequestMetrics.Scope scope = requestMetrics.begin(PGRConstants.ENDPOINT_DYNAMIC_DATA, tenantId)) {
+            ResolutionStatistics resolutionStatistics = statistics.get(tenantId,
+                    () -> pgrRepository.fetchDynamicData(tenantId));
+
+            long averageResolutionTime = resolutionStatistics.getResolvedTotal() == 0 ? 0
+                    : Math.round(resolutionStatistics.getResolutionTimeTotal()
+                            / (double) resolutionStatistics.getResolvedTotal() / TimeUnit.DAYS.toMillis(1));
+
+            return DynamicDataResponse.builder()
+                    .responseInfo(responseInfoFactory.createResponseInfoFromRequestInfo(requestInfo, true))
+                    .tenantId(tenantId)
+                    .complaintsResolved(resolutionStatistics.getResolvedInPeriod())
+                    .averageResolutionTime(averageResolutionTime)
+                    .build();
+        }
+    }
+
+    /**
+     * Adds the service to the cached statistics of its tenant if the update
+     * closed it after resolution. The previous status and the created time are
+     * taken from the stored record, not from the request body.
+     *
+     * @param existing The service as stored before the update
+     * @param service  The updated service
+     */
+    public void onStatusChange(Service existing, Service service) {
+        if (!PGRConstants.PGR_STATUS_CLOSED_AFTER_RESOLUTION.equals(service.getApplicationStatus())
+                || PGRConstants.PGR_STATUS_CLOSED_AFTER_RESOLUTION.equals(existing.getApplicationStatus()))
+            return;
+
+        AuditDetails createdDetails = existing.getAuditDetails();
+        AuditDetails modifiedDetails = service.getAuditDetails();
+        if (createdDetails == null || createdDetails.getCreatedTime() == null || modifiedDetails == null
+                || modifiedDetails.getLastModifiedTime() == null) {
+            statistics.invalidate(service.getTenantId());
+            return;
+        }
+
+        long resolutionTime = modifiedDetails.getLastModifiedTime() - createdDetails.getCreatedTime();
+        statistics.update(service.getTenantId(), cached -> cached.toBuilder()
+                .resolvedInPeriod(cached.getResolvedInPeriod() + 1)
+                .resolvedTotal(cached.getResolvedTotal() + 1)
+                .resolutionTimeTotal(cached.getResolutionTimeTotal() + resolutionTime)
+                .build());
+    }
+
+}
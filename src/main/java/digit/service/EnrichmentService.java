@@ -1,26 +1,27 @@
 package digit.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import org.egov.common.contract.models.AuditDetails;
 import org.egov.common.contract.models.Workflow;
 import org.egov.common.contract.request.RequestInfo;
-import org.egov.tracer.model.CustomException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import digit.config.Configuration;
 import digit.config.PGRConstants;
-import digit.repository.IdGenRepository;
 import digit.util.PGRUtils;
-import digit.web.models.IdResponse;
+import digit.util.RequestMetrics;
+import digit.util.ServiceDefCatalogue;
+import digit.util.ServiceRequestIdPool;
 import digit.web.models.RequestSearchCriteria;
 import digit.web.models.Service;
 import digit.web.models.ServiceRequest;
 
-import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -39,11 +40,17 @@ public class EnrichmentService {
     private Configuration config;
 
     @Autowired
-    private IdGenRepository idGenRepository;
+    private ServiceRequestIdPool serviceRequestIdPool;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Autowired
+    private ServiceDefCatalogue serviceDefCatalogue;
+
     /**
      * Enriches the request for service creation with required fields.
      *
@@ -52,20 +59,86 @@ public class EnrichmentService {
     public void enrichCreateRequest(ServiceRequest requestBody) {
         RequestInfo requestInfo = requestBody.getRequestInfo();
         Service service = requestBody.getPgrEntity().getService();
-        Workflow workflow = requestBody.getPgrEntity().getWorkflow();
-        String tenantId = service.getTenantId();
 
         // Set accountId for the logged-in citizen
+        enrichCitizenAccountId(requestBody);
+
+        // Call the user service to enrich user-related details
+        requestMetrics.time(PGRConstants.PHASE_ENRICH_USER, () -> userService.callUserService(requestBody));
+
+        enrichCreateFields(requestBody);
+
+        // Take a unique service request ID from the pool leased from IDGen
+        List<String> customIds = requestMetrics.time(PGRConstants.PHASE_ENRICH_IDGEN,
+                () -> serviceRequestIdPool.getIds(requestInfo, service.getTenantId(), 1));
+        service.setServiceRequestId(customIds.get(0));
+    }
+
+    /**
+     * Enriches the requests of a bulk create. Citizens are upserted once per mobile
+     * number and the serviceRequestIds of each tenant are taken in one call.
+     *
+     * @param requestInfo The request information of the bulk create.
+     * @param requests    The service requests to enrich.
+     * @return The failures, keyed by the position of the failed request in the list.
+     */
+    public Map<Integer, RuntimeException> enrichBulkCreateRequest(RequestInfo requestInfo,
+            List<ServiceRequest> requests) {
+        requests.forEach(this::enrichCitizenAccountId);
+
+        // Call the user service to enrich user-related details
+        Map<Integer, RuntimeException> failures = requestMetrics.time(PGRConstants.PHASE_ENRICH_USER,
+                () -> userService.callUserService(requests));
+
+        Map<String, List<Integer>> indexesByTenant = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (failures.containsKey(i))
+                continue;
+            try {
+                enrichCreateFields(requests.get(i));
+            } catch (RuntimeException e) {
+                failures.put(i, e);
+                continue;
+            }
+            indexesByTenant.computeIfAbsent(requests.get(i).getPgrEntity().getService().getTenantId(),
+                    tenantId -> new ArrayList<>()).add(i);
+        }
+
+        // Take the service request IDs of each tenant in one go
+        indexesByTenant.forEach((tenantId, indexes) -> {
+            try {
+                List<String> customIds = requestMetrics.time(PGRConstants.PHASE_ENRICH_IDGEN,
+                        () -> serviceRequestIdPool.getIds(requestInfo, tenantId, indexes.size()));
+                for (int i = 0; i < indexes.size(); i++)
+                    requests.get(indexes.get(i)).getPgrEntity().getService().setServiceRequestId(customIds.get(i));
+            } catch (RuntimeException e) {
+                indexes.forEach(i -> failures.put(i, e));
+            }
+        });
+        return failures;
+    }
+
+    private void enrichCitizenAccountId(ServiceRequest requestBody) {
+        RequestInfo requestInfo = requestBody.getRequestInfo();
         if (requestInfo.getUserInfo().getType().equalsIgnoreCase(pgrConstants.USERTYPE_CITIZEN))
             requestBody.getPgrEntity().getService().setAccountId(requestInfo.getUserInfo().getUuid());
+    }
 
-        // Call the user service to enrich user-related details
-        userService.callUserService(requestBody);
+    private void enrichCreateFields(ServiceRequest requestBody) {
+        RequestInfo requestInfo = requestBody.getRequestInfo();
+        Service service = requestBody.getPgrEntity().getService();
+        Workflow workflow = requestBody.getPgrEntity().getWorkflow();
+        String tenantId = service.getTenantId();
 
         // Generate audit details for the service
         AuditDetails auditDetails = pgrUtils.getAuditDetails(requestInfo.getUserInfo().getUuid(), service, true);
         service.setAuditDetails(auditDetails);
 
+        // Fix the SLA deadline from the service code's SLA, so escalation searches need no computation. The
+        // definition was already looked up by the validator, so this is served by the catalogue cache.
+        service.setSlaDeadline(auditDetails.getCreatedTime()
+                + serviceDefCatalogue.getSla(requestInfo, tenantId, service.getServiceCode()));
+
         // Generate unique IDs for the service and its address
         service.setId(UUID.randomUUID().toString());
         service.getAddress().setId(UUID.randomUUID().toString());
@@ -84,11 +157,6 @@ public class EnrichmentService {
         // Set the accountId if it's not already present
         if (StringUtils.isEmpty(service.getAccountId()))
             service.setAccountId(service.getCitizen().getUuid());
-
-        // Generate a unique service request ID using IDGen
-        List<String> customIds = getIdList(requestInfo, tenantId, config.getServiceRequestIdGenName(),
-                config.getServiceRequestIdGenFormat(), 1);
-        service.setServiceRequestId(customIds.get(0));
     }
 
     /**
@@ -115,7 +183,7 @@ public class EnrichmentService {
 
         // If a mobile number is provided, enrich the user IDs based on the tenant
         if (criteria.getMobileNumber() != null) {
-            userService.enrichUserIds(tenantId, criteria);
+            requestMetrics.time(PGRConstants.PHASE_ENRICH_USER, () -> userService.enrichUserIds(tenantId, criteria));
         }
 
         // Set default limits and offsets if not provided
@@ -130,31 +198,6 @@ public class EnrichmentService {
             criteria.setLimit(config.getMaxLimit());
     }
 
-    /**
-     * Generates a list of unique IDs from the IDGen service.
-     *
-     * @param requestInfo The request information object.
-     * @param tenantId    The tenant ID for which IDs are requested.
-     * @param idKey       The key for ID generation.
-     * @param idformat    The format for the generated IDs.
-     * @param count       The number of IDs to generate.
-     * @return A list of generated unique IDs.
-     */
-    private List<String> getIdList(RequestInfo requestInfo, String tenantId, String idKey,
-            String idformat, int count) {
-        List<IdResponse> idResponses = idGenRepository.getId(requestInfo, tenantId,
-                idKey, idformat, count)
-                .getIdResponses();
-
-        // Throw an exception if no IDs are returned from the IDGen service
-        if (CollectionUtils.isEmpty(idResponses))
-            throw new CustomException("IDGEN ERROR", "No ids returned from idgen Service");
-
-        // Extract and return the generated IDs from the response
-        return idResponses.stream()
-                .map(IdResponse::getId).collect(Collectors.toList());
-    }
-
     /**
      * Enriches the request for updating a service with necessary fields.
      *
@@ -169,6 +212,6 @@ public class EnrichmentService {
         service.setAuditDetails(auditDetails);
 
         // Call the user service to enrich user-related details
-        userService.callUserService(serviceRequest);
+        requestMetrics.time(PGRConstants.PHASE_ENRICH_USER, () -> userService.callUserService(serviceRequest));
     }
 }
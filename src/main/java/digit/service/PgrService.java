@@ -1,23 +1,38 @@
 package digit.service;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.egov.common.contract.request.RequestInfo;
 import org.egov.common.contract.response.ResponseInfo;
+import org.egov.tracer.model.CustomException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
 
 import digit.config.Configuration;
+import digit.config.PGRConstants;
 import digit.kafka.Producer;
 import digit.repository.PGRRepository;
+import digit.repository.PGRWriteRepository;
 import digit.util.PGRUtils;
+import digit.util.RequestMetrics;
 import digit.util.ResponseInfoFactory;
 import digit.validator.PgrValidator;
+import digit.web.models.BulkItemResult;
+import digit.web.models.BulkServiceRequest;
+import digit.web.models.BulkServiceResponse;
 import digit.web.models.CountResponse;
 import digit.web.models.PGREntity;
 import digit.web.models.RequestSearchCriteria;
 import digit.web.models.SearchRequest;
+import digit.web.models.Service;
 import digit.web.models.ServiceRequest;
 import digit.web.models.ServiceResponse;
 
@@ -44,9 +59,18 @@ public class PgrService {
     @Autowired
     private PGRRepository pgrRepository;
 
+    @Autowired
+    private PGRWriteRepository pgrWriteRepository;
+
     @Autowired
     private PGRUtils pgrUtils;
 
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Autowired
+    private DynamicDataService dynamicDataService;
+
     /**
      * Creates a new service request based on the provided request body.
      *
@@ -63,24 +87,180 @@ public class PgrService {
      *         as part of the service request creation process.
      */
     public ServiceResponse create(ServiceRequest requestBody) {
-        // Validate the request
-        pgrValidator.validateCreateRequest(requestBody);
+        try (RequestMetrics.Scope scope = requestMetrics.begin(PGRConstants.ENDPOINT_CREATE,
+                requestBody.getPgrEntity().getService().getTenantId())) {
+            // Validate the request
+            requestMetrics.time(PGRConstants.PHASE_VALIDATE, () -> pgrValidator.validateCreateRequest(requestBody));
+
+            // Enrich the request
+            requestMetrics.time(PGRConstants.PHASE_ENRICH, () -> enrichmentService.enrichCreateRequest(requestBody));
+
+            // Update workflow status
+            requestMetrics.time(PGRConstants.PHASE_WORKFLOW, () -> workflowService.updateWorkflowStatus(requestBody));
+
+            // Write to the database directly when the persister is not used
+            if (config.getJdbcWriteEnabled())
+                requestMetrics.time(PGRConstants.PHASE_DB_WRITE,
+                        () -> pgrWriteRepository.save(requestBody.getPgrEntity()));
+
+            // Push to Kafka topic
+            requestMetrics.time(PGRConstants.PHASE_KAFKA,
+                    () -> push(config.getPgrCreateTopic(), requestBody.getPgrEntity()));
+
+            // Create and return the ServiceResponse
+            ResponseInfo responseInfo = responseInfoFactory
+                    .createResponseInfoFromRequestInfo(requestBody.getRequestInfo(), true);
+            ServiceResponse response = ServiceResponse.builder().responseInfo(responseInfo)
+                    .pgREntities(Collections.singletonList(requestBody.getPgrEntity())).build();
+            return response;
+        }
+    }
 
-        // Enrich the request
-        enrichmentService.enrichCreateRequest(requestBody);
+    /**
+     * Creates many service requests in one call. Each service is validated on its
+     * own and fails without affecting the others, while the downstream calls are
+     * made once for the whole batch: citizens are upserted once per mobile number,
+     * the serviceRequestIds of a tenant are taken in one IdGen call, every workflow
+     * transition goes in one ProcessInstanceRequest and the Kafka records are sent
+     * together.
+     *
+     * @param request The bulk create request
+     * @return One result per service, in the order of the request
+     */
+    public BulkServiceResponse bulkCreate(BulkServiceRequest request) {
+        String tenantId = request.getRequestInfo() == null || request.getRequestInfo().getUserInfo() == null ? null
+                : request.getRequestInfo().getUserInfo().getTenantId();
+        try (RequestMetrics.Scope scope = requestMetrics.begin(PGRConstants.ENDPOINT_BULK_CREATE, tenantId)) {
+            return createAll(request);
+        }
+    }
 
-        // Update workflow status
-        workflowService.updateWorkflowStatus(requestBody);
+    private BulkServiceResponse createAll(BulkServiceRequest request) {
+        pgrValidator.validateBulkCreateRequest(request);
 
-        // Push to Kafka topic
-        producer.push(config.getPgrCreateTopic(), requestBody.getPgrEntity());
+        RequestInfo requestInfo = request.getRequestInfo();
+        List<PGREntity> pgrEntities = request.getPgrEntities();
+
+        List<BulkItemResult> results = new ArrayList<>();
+        List<ServiceRequest> requests = new ArrayList<>();
+        for (int i = 0; i < pgrEntities.size(); i++) {
+            results.add(BulkItemResult.builder().index(i).pgrEntity(pgrEntities.get(i)).build());
+            requests.add(new ServiceRequest(requestInfo, pgrEntities.get(i)));
+        }
+
+        // Validate each service, MDMS is read from the service definition catalogue
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                pgrValidator.validateCreateRequest(requests.get(i));
+                pending.add(i);
+            } catch (RuntimeException e) {
+                fail(results.get(i), e);
+            }
+        }
+
+        // Enrich, upserting users and taking ids once for the batch
+        pending = removeFailed(pending, results,
+                enrichmentService.enrichBulkCreateRequest(requestInfo, select(requests, pending)));
+
+        // Transition every workflow in one call
+        if (!pending.isEmpty()) {
+            try {
+                workflowService.updateWorkflowStatus(requestInfo, select(requests, pending));
+            } catch (RuntimeException e) {
+                pending.forEach(i -> fail(results.get(i), e));
+                pending = new ArrayList<>();
+            }
+        }
+
+        List<Integer> transitioned = new ArrayList<>();
+        for (Integer i : pending) {
+            if (pgrEntities.get(i).getService().getApplicationStatus() == null)
+                fail(results.get(i), new CustomException(PGRConstants.WORKFLOW_STATE_MISSING_CODE,
+                        PGRConstants.WORKFLOW_STATE_MISSING_MESSAGE));
+            else
+                transitioned.add(i);
+        }
+
+        // Write to the database directly when the persister is not used
+        if (config.getJdbcWriteEnabled()) {
+            List<CompletableFuture<Void>> writes = pgrWriteRepository.saveAll(
+                    transitioned.stream().map(pgrEntities::get).collect(Collectors.toList()));
+            transitioned = removeFailed(transitioned, results, pgrWriteRepository.awaitAll(writes));
+        }
+
+        // Push to Kafka topic as one batch. A stored service whose record is neither acknowledged nor spooled fails too.
+        List<PGREntity> created = transitioned.stream().map(pgrEntities::get).collect(Collectors.toList());
+        List<CompletableFuture<SendResult<String, Object>>> sends = producer.pushAll(config.getPgrCreateTopic(),
+                created, pgrUtils::getRecordKey);
+        removeFailed(transitioned, results, producer.awaitAll(config.getPgrCreateTopic(), sends))
+                .forEach(i -> results.get(i).setStatus(PGRConstants.BULK_ITEM_SUCCESSFUL));
+
+        ResponseInfo responseInfo = responseInfoFactory.createResponseInfoFromRequestInfo(requestInfo, true);
+        return BulkServiceResponse.builder().responseInfo(responseInfo).results(results).build();
+    }
 
-        // Create and return the ServiceResponse
-        ResponseInfo responseInfo = responseInfoFactory.createResponseInfoFromRequestInfo(requestBody.getRequestInfo(),
-                true);
-        ServiceResponse response = ServiceResponse.builder().responseInfo(responseInfo)
-                .pgREntities(Collections.singletonList(requestBody.getPgrEntity())).build();
-        return response;
+    /**
+     * Pushes a service request to the topic. When the service request was written
+     * to the database its record is the only way the indexers learn of it, so the
+     * push waits for the acknowledgement even on topics that do not wait for it. A
+     * record the broker does not take is spooled when the spool is enabled,
+     * otherwise the request fails.
+     *
+     * @param topic     The topic to push to
+     * @param pgrEntity The service request
+     */
+    private void push(String topic, PGREntity pgrEntity) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getKafkaAckTimeout());
+        CompletableFuture<SendResult<String, Object>> future = producer.push(topic, pgrUtils.getRecordKey(pgrEntity),
+                pgrEntity);
+        if (config.getJdbcWriteEnabled())
+            producer.await(topic, future, deadline);
+    }
+
+    /**
+     * Marks the items that failed in a step of the bulk create and returns the
+     * items still pending
+     *
+     * @param pending  The positions of the items that went into the step
+     * @param results  The results of all items
+     * @param failures The failures of the step, keyed by position in the pending list
+     * @return The positions of the items that passed the step
+     */
+    private List<Integer> removeFailed(List<Integer> pending, List<BulkItemResult> results,
+            Map<Integer, RuntimeException> failures) {
+        List<Integer> passed = new ArrayList<>();
+        for (int j = 0; j < pending.size(); j++) {
+            if (failures.containsKey(j))
+                fail(results.get(pending.get(j)), failures.get(j));
+            else
+                passed.add(pending.get(j));
+        }
+        return passed;
+    }
+
+    private List<ServiceRequest> select(List<ServiceRequest> requests, List<Integer> positions) {
+        return positions.stream().map(requests::get).collect(Collectors.toList());
+    }
+
+    private void fail(BulkItemResult result, RuntimeException e) {
+        String code = PGRConstants.BULK_CREATE_FAILED_CODE;
+        String message = e.getMessage();
+
+        if (e instanceof CustomException) {
+            CustomException customException = (CustomException) e;
+            if (customException.getCode() != null) {
+                code = customException.getCode();
+            } else if (!CollectionUtils.isEmpty(customException.getErrors())) {
+                Map.Entry<String, String> error = customException.getErrors().entrySet().iterator().next();
+                code = error.getKey();
+                message = error.getValue();
+            }
+        }
+
+        result.setStatus(PGRConstants.BULK_ITEM_FAILED);
+        result.setErrorCode(code);
+        result.setErrorMessage(message);
     }
 
     /**
@@ -106,18 +286,26 @@ public class PgrService {
     public ServiceResponse search(SearchRequest searchRequest) {
         RequestInfo requestInfo = searchRequest.getRequestInfo();
         RequestSearchCriteria criteria = searchRequest.getCriteria();
-
-        // Validate the search criteria
-        pgrValidator.validateSearch(requestInfo, criteria);
-
-        // Enrich the search request with additional data
-        enrichmentService.enrichSearchRequest(requestInfo, criteria);
-
-        // Get the sorted pgr entities
-        List<PGREntity> sortedServiceWrappers = pgrRepository.getSortedServiceWrappers(requestInfo, criteria);
-
-        // Return the response with the sorted service wrappers
-        return pgrUtils.convertToServiceResponse(requestInfo, sortedServiceWrappers);
+        criteria.setFields(searchRequest.getFields());
+        criteria.setExpand(searchRequest.getExpand());
+
+        try (RequestMetrics.Scope scope = requestMetrics.begin(PGRConstants.ENDPOINT_SEARCH, criteria.getTenantId())) {
+            // Validate the search criteria
+            requestMetrics.time(PGRConstants.PHASE_VALIDATE, () -> pgrValidator.validateSearch(requestInfo, criteria));
+
+            // Enrich the search request with additional data
+            requestMetrics.time(PGRConstants.PHASE_ENRICH,
+                    () -> enrichmentService.enrichSearchRequest(requestInfo, criteria));
+
+            // Get the sorted pgr entities
+            List<PGREntity> sortedServiceWrappers = requestMetrics.time(PGRConstants.PHASE_SEARCH,
+                    () -> pgrRepository.getSortedServiceWrappers(requestInfo, criteria));
+
+            // Return the response with the sorted service wrappers and the cursor for the next page
+            ServiceResponse response = pgrUtils.convertToServiceResponse(requestInfo, sortedServiceWrappers);
+            response.setNextCursor(criteria.getNextCursor());
+            return response;
+        }
     }
 
     /**
@@ -131,21 +319,34 @@ public class PgrService {
      * @return The updated service response.
      */
     public ServiceResponse update(ServiceRequest request) {
-        // Validate the update request
-        pgrValidator.validateUpdate(request);
-
-        // Enrich the update request
-        enrichmentService.enrichUpdateRequest(request);
-
-        // Update workflow status
-        workflowService.updateWorkflowStatus(request);
-
-        // Push to Kafka topic
-        producer.push(config.getPgrUpdateTopic(), request.getPgrEntity());
-
-        // Create and return the ServiceResponse
-        return pgrUtils.convertToServiceResponse(request.getRequestInfo(),
-                Collections.singletonList(request.getPgrEntity()));
+        try (RequestMetrics.Scope scope = requestMetrics.begin(PGRConstants.ENDPOINT_UPDATE,
+                request.getPgrEntity().getService().getTenantId())) {
+            // Validate the update request
+            Service existing = requestMetrics.time(PGRConstants.PHASE_VALIDATE,
+                    () -> pgrValidator.validateUpdate(request));
+
+            // Enrich the update request
+            requestMetrics.time(PGRConstants.PHASE_ENRICH, () -> enrichmentService.enrichUpdateRequest(request));
+
+            // Update workflow status
+            requestMetrics.time(PGRConstants.PHASE_WORKFLOW, () -> workflowService.updateWorkflowStatus(request));
+
+            // Write to the database directly when the persister is not used
+            if (config.getJdbcWriteEnabled())
+                requestMetrics.time(PGRConstants.PHASE_DB_WRITE,
+                        () -> pgrWriteRepository.update(request.getPgrEntity()));
+
+            // Push to Kafka topic
+            requestMetrics.time(PGRConstants.PHASE_KAFKA,
+                    () -> push(config.getPgrUpdateTopic(), request.getPgrEntity()));
+
+            // Count a complaint closed after resolution in the dashboard statistics
+            dynamicDataService.onStatusChange(existing, request.getPgrEntity().getService());
+
+            // Create and return the ServiceResponse
+            return pgrUtils.convertToServiceResponse(request.getRequestInfo(),
+                    Collections.singletonList(request.getPgrEntity()));
+        }
     }
 
     /**
@@ -157,26 +358,30 @@ public class PgrService {
      *         {@link CountResponse}.
      */
     public CountResponse count(SearchRequest request) {
-        // Validate the search criteria
+        RequestInfo requestInfo = request.getRequestInfo();
         RequestSearchCriteria criteria = request.getCriteria();
 
-        // Enrich the search request with additional data
-        RequestInfo requestInfo = request.getRequestInfo();
+        try (RequestMetrics.Scope scope = requestMetrics.begin(PGRConstants.ENDPOINT_COUNT, criteria.getTenantId())) {
+            // Validate the search criteria
+            requestMetrics.time(PGRConstants.PHASE_VALIDATE, () -> pgrValidator.validateSearch(requestInfo, criteria));
 
-        // Validate the search criteria
-        criteria.setIsPlainSearch(false);
+            // Enrich the search request with additional data
+            requestMetrics.time(PGRConstants.PHASE_ENRICH,
+                    () -> enrichmentService.enrichSearchRequest(requestInfo, criteria));
 
-        // Get the count
-        Integer count = pgrRepository.getCount(criteria);
+            // Get the count
+            criteria.setIsPlainSearch(false);
+            Integer count = requestMetrics.time(PGRConstants.PHASE_COUNT, () -> pgrRepository.getCount(criteria));
 
-        // Create and return the CountResponse
-        CountResponse countResponse = CountResponse.builder()
-                .responseInfo(responseInfoFactory.createResponseInfoFromRequestInfo(
-                        requestInfo, true))
-                .count(count).build();
+            // Create and return the CountResponse
+            CountResponse countResponse = CountResponse.builder()
+                    .responseInfo(responseInfoFactory.createResponseInfoFromRequestInfo(
+                            requestInfo, true))
+                    .count(count).build();
 
-        // Return the response
-        return countResponse;
+            // Return the response
+            return countResponse;
+        }
     }
 
 }
@@ -9,6 +9,7 @@ import org.springframework.util.StringUtils;
 import digit.config.Configuration;
 import digit.config.ErrorConstants;
 import digit.config.PGRConstants;
+import digit.util.UserCache;
 import digit.util.UserUtil;
 import digit.web.models.CreateUserRequest;
 import digit.web.models.PGREntity;
@@ -37,6 +38,9 @@ public class UserService {
     @Autowired
     private ErrorConstants errorConstants;
 
+    @Autowired
+    private UserCache userCache;
+
     /**
      * Calls the appropriate user service method based on the presence of account ID
      * or citizen details in the service.
@@ -56,6 +60,51 @@ public class UserService {
         }
     }
 
+    /**
+     * Calls the user service for each request of a bulk create. Citizens without
+     * an accountId are upserted once per (state level tenant, mobile number) and
+     * every request with that mobile number gets the resulting user and accountId.
+     *
+     * @param requests The service requests of the bulk create
+     * @return The failures, keyed by the position of the failed request in the list
+     */
+    public Map<Integer, RuntimeException> callUserService(List<ServiceRequest> requests) {
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        Map<String, List<Integer>> requestsByMobileNumber = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            ServiceRequest request = requests.get(i);
+            User citizen = request.getPgrEntity().getService().getCitizen();
+
+            if (StringUtils.isEmpty(request.getPgrEntity().getService().getAccountId()) && citizen != null) {
+                String key = userUtils.getStateLevelTenant(request.getPgrEntity().getService().getTenantId())
+                        + "|" + citizen.getMobileNumber();
+                requestsByMobileNumber.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+                continue;
+            }
+
+            try {
+                callUserService(request);
+            } catch (RuntimeException e) {
+                failures.put(i, e);
+            }
+        }
+
+        requestsByMobileNumber.values().forEach(indexes -> {
+            ServiceRequest first = requests.get(indexes.get(0));
+            try {
+                User user = upsertUser(first);
+                indexes.forEach(i -> {
+                    requests.get(i).getPgrEntity().getService().setAccountId(user.getUuid());
+                    requests.get(i).getPgrEntity().getService().setCitizen(user);
+                });
+            } catch (RuntimeException e) {
+                indexes.forEach(i -> failures.put(i, e));
+            }
+        });
+        return failures;
+    }
+
     /**
      * Enriches the services in the list with user details based on the account ID.
      *
@@ -69,8 +118,19 @@ public class UserService {
             uuids.add(pgrEntity.getService().getAccountId());
         });
 
-        // Fetch user details in bulk based on the collected account IDs
-        Map<String, User> idToUserMap = searchBulkUser(new LinkedList<>(uuids));
+        // Serve what we can from the cache and fetch only the unknown uuids in bulk
+        uuids.remove(null);
+        Map<String, User> idToUserMap = userCache.getAllPresent(uuids);
+        uuids.removeAll(idToUserMap.keySet());
+
+        if (!uuids.isEmpty()) {
+            Map<String, User> fetchedUsers = searchBulkUser(new LinkedList<>(uuids));
+            userCache.putAll(fetchedUsers.values());
+            idToUserMap.putAll(fetchedUsers);
+        }
+
+        if (idToUserMap.isEmpty())
+            throw new CustomException("USER_NOT_FOUND", "No user found for the uuids");
 
         // Enrich each service with the corresponding user details
         pgrEntities.forEach(serviceWrapper -> {
@@ -78,7 +138,7 @@ public class UserService {
         });
     }
 
-    private void upsertUser(ServiceRequest request) {
+    private User upsertUser(ServiceRequest request) {
 
         User user = request.getPgrEntity().getService().getCitizen();
         String tenantId = request.getPgrEntity().getService().getTenantId();
@@ -92,6 +152,7 @@ public class UserService {
             User userFromSearch = userDetailResponse.getUser().get(0);
             if (!user.getName().equalsIgnoreCase(userFromSearch.getName())) {
                 userServiceResponse = updateUser(request.getRequestInfo(), user, userFromSearch);
+                userCache.evict(userUtils.getStateLevelTenant(tenantId), userServiceResponse);
             } else
                 userServiceResponse = userDetailResponse.getUser().get(0);
         } else {
@@ -100,6 +161,7 @@ public class UserService {
 
         // Enrich the accountId
         request.getPgrEntity().getService().setAccountId(userServiceResponse.getUuid());
+        return userServiceResponse;
     }
 
     private void enrichUser(ServiceRequest request) {
@@ -107,13 +169,21 @@ public class UserService {
         String accountId = request.getPgrEntity().getService().getAccountId();
         String tenantId = request.getPgrEntity().getService().getTenantId();
 
+        User cachedUser = userCache.get(accountId);
+        if (cachedUser != null) {
+            request.getPgrEntity().getService().setCitizen(cachedUser);
+            return;
+        }
+
         UserDetailResponse userDetailResponse = searchUser(userUtils.getStateLevelTenant(tenantId), accountId, null);
 
         if (userDetailResponse.getUser().isEmpty())
             throw new CustomException(errorConstants.INVALID_ACCOUNTID, "No user exist for the given accountId");
 
-        else
+        else {
+            userCache.putAll(userDetailResponse.getUser());
             request.getPgrEntity().getService().setCitizen(userDetailResponse.getUser().get(0));
+        }
 
     }
 
@@ -124,7 +194,11 @@ public class UserService {
                 .append(config.getUserCreateEndpoint());
 
         UserDetailResponse userDetailResponse = userUtils.userCall(new CreateUserRequest(requestInfo, userInfo), uri);
-        return userDetailResponse.getUser().get(0);
+        User createdUser = userDetailResponse.getUser().get(0);
+
+        // A cached empty mobile number search would otherwise hide the new citizen
+        userCache.evict(userUtils.getStateLevelTenant(tenantId), createdUser);
+        return createdUser;
     }
 
     /**
@@ -199,7 +273,7 @@ public class UserService {
         List<User> users = userDetailResponse.getUser();
 
         if (CollectionUtils.isEmpty(users))
-            throw new CustomException("USER_NOT_FOUND", "No user found for the uuids");
+            return new HashMap<>();
 
         Map<String, User> idToUserMap = users.stream().collect(Collectors.toMap(User::getUuid, Function.identity()));
 
@@ -216,6 +290,13 @@ public class UserService {
     public void enrichUserIds(String tenantId, RequestSearchCriteria criteria) {
 
         String mobileNumber = criteria.getMobileNumber();
+        String stateLevelTenant = userUtils.getStateLevelTenant(tenantId);
+
+        List<User> cachedUsers = userCache.getByMobileNumber(stateLevelTenant, mobileNumber);
+        if (cachedUsers != null) {
+            criteria.setUserIds(cachedUsers.stream().map(User::getUuid).collect(Collectors.toSet()));
+            return;
+        }
 
         UserSearchRequest userSearchRequest = new UserSearchRequest();
         userSearchRequest.setActive(true);
@@ -226,6 +307,8 @@ public class UserService {
         StringBuilder uri = new StringBuilder(config.getUserHost()).append(config.getUserSearchEndpoint());
         UserDetailResponse userDetailResponse = userUtils.userCall(userSearchRequest, uri);
         List<User> users = userDetailResponse.getUser();
+        userCache.putByMobileNumber(stateLevelTenant, mobileNumber, users);
+        userCache.putAll(users);
 
         Set<String> userIds = users.stream().map(User::getUuid).collect(Collectors.toSet());
         criteria.setUserIds(userIds);
@@ -1,10 +1,13 @@
 package digit.service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -19,14 +22,19 @@ import org.egov.common.contract.workflow.ProcessInstanceResponse;
 import org.egov.common.contract.workflow.State;
 import org.egov.tracer.model.CustomException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 
 import digit.config.Configuration;
 import digit.config.PGRConstants;
 import digit.repository.ServiceRequestRepository;
+import digit.util.AsyncUtil;
+import digit.util.RefreshAheadCache;
+import digit.util.RequestMetrics;
 import digit.web.models.PGREntity;
 import digit.web.models.RequestInfoWrapper;
 import digit.web.models.Service;
@@ -45,7 +53,27 @@ public class WorkflowService {
     private ServiceRequestRepository repository;
 
     @Autowired
-    private ObjectMapper mapper;
+    private AsyncUtil asyncUtil;
+
+    @Autowired
+    @Qualifier("cacheRefreshExecutor")
+    private Executor cacheRefreshExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    private RefreshAheadCache<String, BusinessService> businessServiceCache;
+
+    @PostConstruct
+    public void initBusinessServiceCache() {
+        businessServiceCache = new RefreshAheadCache<>("pgr.workflow.businessservice",
+                Duration.ofSeconds(pgrConfiguration.getBusinessServiceCacheTtl()),
+                Duration.ofSeconds(pgrConfiguration.getBusinessServiceCacheRefresh()),
+                1000, asyncUtil, cacheRefreshExecutor, meterRegistry);
+    }
 
     /**
      * Updates the workflow status of the given service request by interacting with
@@ -77,6 +105,35 @@ public class WorkflowService {
         return state.getApplicationStatus();
     }
 
+    /**
+     * Transitions the workflow of every request of a bulk create in a single call
+     * to the workflow service and sets the resulting application status on each
+     * service. A request the workflow service returns no state for is left without
+     * an application status.
+     *
+     * @param requestInfo The request information of the bulk create.
+     * @param requests    The service requests to transition.
+     */
+    public void updateWorkflowStatus(RequestInfo requestInfo, List<ServiceRequest> requests) {
+        List<ProcessInstance> processInstances = requests.stream()
+                .map(this::getProcessInstanceForPGR)
+                .collect(Collectors.toList());
+
+        ProcessInstanceResponse response = transition(new ProcessInstanceRequest(requestInfo, processInstances));
+
+        Map<String, State> businessIdToState = new HashMap<>();
+        if (response.getProcessInstances() != null)
+            response.getProcessInstances().forEach(
+                    processInstance -> businessIdToState.put(processInstance.getBusinessId(), processInstance.getState()));
+
+        requests.forEach(request -> {
+            Service service = request.getPgrEntity().getService();
+            State state = businessIdToState.get(service.getServiceRequestId());
+            if (state != null)
+                service.setApplicationStatus(state.getApplicationStatus());
+        });
+    }
+
     /**
      * Constructs the URL with query parameters for searching the workflow service
      * for a specific tenant and business service.
@@ -104,47 +161,65 @@ public class WorkflowService {
         return url;
     }
 
+    /**
+     * Enriches the workflow of the given services. Process instances are searched
+     * per tenant, and the tenants are searched concurrently on the enrichment
+     * executor.
+     *
+     * @param requestInfo     The request information
+     * @param serviceWrappers The services to enrich
+     * @return The enriched services grouped by tenant
+     */
     public List<PGREntity> enrichWorkflow(RequestInfo requestInfo, List<PGREntity> serviceWrappers) {
         Map<String, List<PGREntity>> tenantIdToServiceWrapperMap = getTenantIdToServiceWrapperMap(serviceWrappers);
 
-        List<PGREntity> enrichedServiceWrappers = new ArrayList<>();
+        // A single tenant, the common case, needs no hand off
+        if (tenantIdToServiceWrapperMap.size() == 1) {
+            Map.Entry<String, List<PGREntity>> entry = tenantIdToServiceWrapperMap.entrySet().iterator().next();
+            return enrichTenantWorkflow(requestInfo, entry.getKey(), entry.getValue());
+        }
 
-        for (String tenantId : tenantIdToServiceWrapperMap.keySet()) {
+        List<CompletableFuture<List<PGREntity>>> futures = new ArrayList<>();
+        tenantIdToServiceWrapperMap.forEach((tenantId, tenantSpecificWrappers) -> futures.add(
+                asyncUtil.supplyAsync(() -> enrichTenantWorkflow(requestInfo, tenantId, tenantSpecificWrappers))));
 
-            List<String> serviceRequestIds = new ArrayList<>();
+        List<PGREntity> enrichedServiceWrappers = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<PGREntity>> future : futures)
+                enrichedServiceWrappers.addAll(asyncUtil.await(future));
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        return enrichedServiceWrappers;
+    }
 
-            List<PGREntity> tenantSpecificWrappers = tenantIdToServiceWrapperMap.get(tenantId);
+    private List<PGREntity> enrichTenantWorkflow(RequestInfo requestInfo, String tenantId,
+            List<PGREntity> tenantSpecificWrappers) {
 
-            tenantSpecificWrappers.forEach(pgrEntity -> {
-                serviceRequestIds.add(pgrEntity.getService().getServiceRequestId());
-            });
+        List<String> serviceRequestIds = new ArrayList<>();
 
-            RequestInfoWrapper requestInfoWrapper = RequestInfoWrapper.builder().requestInfo(requestInfo).build();
+        tenantSpecificWrappers.forEach(pgrEntity -> {
+            serviceRequestIds.add(pgrEntity.getService().getServiceRequestId());
+        });
 
-            StringBuilder searchUrl = getprocessInstanceSearchURL(tenantId, StringUtils.join(serviceRequestIds, ','));
-            Object result = repository.fetchResult(searchUrl, requestInfoWrapper);
+        RequestInfoWrapper requestInfoWrapper = RequestInfoWrapper.builder().requestInfo(requestInfo).build();
 
-            ProcessInstanceResponse processInstanceResponse = null;
-            try {
-                processInstanceResponse = mapper.convertValue(result, ProcessInstanceResponse.class);
-            } catch (IllegalArgumentException e) {
-                throw new CustomException("PARSING ERROR",
-                        "Failed to parse response of workflow processInstance search");
-            }
+        StringBuilder searchUrl = getprocessInstanceSearchURL(tenantId, StringUtils.join(serviceRequestIds, ','));
+        ProcessInstanceResponse processInstanceResponse = repository.fetchResult(searchUrl, requestInfoWrapper,
+                ProcessInstanceResponse.class);
 
-            if (CollectionUtils.isEmpty(processInstanceResponse.getProcessInstances())
-                    || processInstanceResponse.getProcessInstances().size() != serviceRequestIds.size())
-                throw new CustomException("WORKFLOW_NOT_FOUND", "The workflow object is not found");
+        if (CollectionUtils.isEmpty(processInstanceResponse.getProcessInstances())
+                || processInstanceResponse.getProcessInstances().size() != serviceRequestIds.size())
+            throw new CustomException("WORKFLOW_NOT_FOUND", "The workflow object is not found");
 
-            Map<String, Workflow> businessIdToWorkflow = getWorkflow(processInstanceResponse.getProcessInstances());
+        Map<String, Workflow> businessIdToWorkflow = getWorkflow(processInstanceResponse.getProcessInstances());
 
-            tenantSpecificWrappers.forEach(pgrEntity -> {
-                pgrEntity.setWorkflow(businessIdToWorkflow.get(pgrEntity.getService().getServiceRequestId()));
-            });
+        tenantSpecificWrappers.forEach(pgrEntity -> {
+            pgrEntity.setWorkflow(businessIdToWorkflow.get(pgrEntity.getService().getServiceRequestId()));
+        });
 
-            enrichedServiceWrappers.addAll(tenantSpecificWrappers);
-        }
-        return enrichedServiceWrappers;
+        return tenantSpecificWrappers;
     }
 
     private Map<String, List<PGREntity>> getTenantIdToServiceWrapperMap(List<PGREntity> pgrEntities) {
@@ -188,18 +263,40 @@ public class WorkflowService {
         return processInstance;
     }
 
+    /**
+     * Returns the PGR business service of the tenant. The definition rarely
+     * changes, so it is served from a per tenant cache that is refreshed in the
+     * background.
+     *
+     * @param serviceRequest The request whose tenant the business service is for
+     * @return The business service
+     */
     public BusinessService getBusinessService(ServiceRequest serviceRequest) {
         String tenantId = serviceRequest.getPgrEntity().getService().getTenantId();
+        RequestInfo requestInfo = serviceRequest.getRequestInfo();
+        return requestMetrics.time(PGRConstants.PHASE_WORKFLOW_BUSINESSSERVICE,
+                () -> businessServiceCache.get(tenantId, () -> fetchBusinessService(requestInfo, tenantId)));
+    }
+
+    /**
+     * Drops the cached business service of the tenant, or of every tenant when
+     * the tenantId is null
+     *
+     * @param tenantId The tenant whose definition changed
+     */
+    public void invalidateBusinessService(String tenantId) {
+        if (tenantId == null)
+            businessServiceCache.invalidateAll();
+        else
+            businessServiceCache.invalidate(tenantId);
+    }
+
+    private BusinessService fetchBusinessService(RequestInfo requestInfo, String tenantId) {
         StringBuilder url = getSearchURLWithParams(tenantId, pgrConstants.PGR_BUSINESSSERVICE);
         RequestInfoWrapper requestInfoWrapper = RequestInfoWrapper.builder()
-                .requestInfo(serviceRequest.getRequestInfo()).build();
-        Object result = repository.fetchResult(url, requestInfoWrapper);
-        BusinessServiceResponse response = null;
-        try {
-            response = mapper.convertValue(result, BusinessServiceResponse.class);
-        } catch (IllegalArgumentException e) {
-            throw new CustomException("PARSING ERROR", "Failed to parse response of workflow business service search");
-        }
+                .requestInfo(requestInfo).build();
+        BusinessServiceResponse response = repository.fetchResult(url, requestInfoWrapper,
+                BusinessServiceResponse.class);
 
         if (CollectionUtils.isEmpty(response.getBusinessServices()))
             throw new CustomException("BUSINESSSERVICE_NOT_FOUND",
@@ -237,18 +334,19 @@ public class WorkflowService {
      * @return The current state of the process.
      */
     private State callWorkFlow(ProcessInstanceRequest workflowReq) {
-        ProcessInstanceResponse response = null;
-        StringBuilder url = new StringBuilder(
-                pgrConfiguration.getWfHost().concat(pgrConfiguration.getWfTransitionPath()));
-        Object optional = repository.fetchResult(url, workflowReq);
-
-        // Convert the response to ProcessInstanceResponse
-        response = mapper.convertValue(optional, ProcessInstanceResponse.class);
+        ProcessInstanceResponse response = transition(workflowReq);
 
         // Return the current state of the process
         return response.getProcessInstances().get(0).getState();
     }
 
+    private ProcessInstanceResponse transition(ProcessInstanceRequest workflowReq) {
+        StringBuilder url = new StringBuilder(
+                pgrConfiguration.getWfHost().concat(pgrConfiguration.getWfTransitionPath()));
+        return requestMetrics.time(PGRConstants.PHASE_WORKFLOW_TRANSITION,
+                () -> repository.fetchResult(url, workflowReq, ProcessInstanceResponse.class));
+    }
+
     /**
      * Creates the URL for searching the workflow service for a process instance.
      *
@@ -0,0 +1,109 @@
+package digit.util;
+
+import digit.config.Configuration;
+
+import org.egov.tracer.model.CustomException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static digit.config.PGRConstants.*;
+
+/**
+ * Runs independent blocking calls on the enrichment executor and waits for them
+ * with the configured timeout. The work runs in the request metrics scope of the
+ * caller.
+ */
+@Component
+public class AsyncUtil {
+
+    @Autowired
+    @Qualifier("enrichmentExecutor")
+    private AsyncTaskExecutor enrichmentExecutor;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    /**
+     * Starts the supplier on the enrichment executor. The returned future fails
+     * with a timeout if it does not complete within the configured time.
+     * Cancelling the future cancels the task: a task still queued never runs and a
+     * running one is interrupted. A blocking socket read does not react to the
+     * interrupt and ends at the http client's read timeout.
+     *
+     * @param supplier The work to run
+     * @return Future of the result
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        Supplier<T> work = requestMetrics.propagate(supplier);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> task = enrichmentExecutor.submit(() -> {
+            try {
+                future.complete(work.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled())
+                task.cancel(true);
+        });
+        return future.orTimeout(config.getEnrichmentTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts the runnable on the enrichment executor, see {@link #supplyAsync}.
+     *
+     * @param runnable The work to run
+     * @return Future completing when the work is done
+     */
+    public CompletableFuture<Void> runAsync(Runnable runnable) {
+        return supplyAsync(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns a view of the future that fails after pgr.enrichment.timeout.ms,
+     * leaving the future itself untouched for its other waiters.
+     *
+     * @param future The future to wait for
+     * @return Future completing with the future or timing out
+     */
+    public <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future) {
+        return future.copy().orTimeout(config.getEnrichmentTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits for the future and rethrows the failure of the task as is, so callers
+     * see the same CustomException they would have seen from a direct call.
+     *
+     * @param future The future to wait for
+     * @return The result of the task
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException)
+                throw new CustomException(ENRICHMENT_TIMEOUT_CODE, ENRICHMENT_TIMEOUT_MESSAGE);
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new CustomException(ENRICHMENT_FAILED_CODE, ENRICHMENT_FAILED_MESSAGE + cause.getMessage());
+        }
+    }
+
+}
@@ -1,13 +1,17 @@
 package digit.util;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.jayway.jsonpath.JsonPath;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import digit.config.Configuration;
-import digit.config.PGRConstants;
 import digit.repository.ServiceRequestRepository;
+import digit.web.models.Employee;
+import digit.web.models.EmployeeResponse;
 import digit.web.models.RequestInfoWrapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
 import org.apache.commons.lang3.StringUtils;
 import org.egov.common.contract.request.RequestInfo;
 import org.egov.tracer.model.CustomException;
@@ -15,7 +19,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 public class HRMSUtil {
@@ -27,10 +39,23 @@ public class HRMSUtil {
     private Configuration config;
 
     @Autowired
-    private PGRConstants pgrConstants;
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, List<String>> departmentCache;
+
+    @PostConstruct
+    public void initDepartmentCache() {
+        departmentCache = Caffeine.newBuilder()
+                .maximumSize(config.getHrmsCacheMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(config.getHrmsCacheTtl()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, departmentCache, "pgr.hrms.department");
+    }
 
     /**
-     * Gets the list of department for the given list of uuids of employees
+     * Gets the list of department for the given list of uuids of employees. Only
+     * the employees missing from the cache are searched in HRMS.
      * 
      * @param uuids
      * @param requestInfo
@@ -38,20 +63,23 @@ public class HRMSUtil {
      */
     public List<String> getDepartment(List<String> uuids, RequestInfo requestInfo) {
 
-        StringBuilder url = getHRMSURI(uuids);
-
-        RequestInfoWrapper requestInfoWrapper = RequestInfoWrapper.builder().requestInfo(requestInfo).build();
+        Set<String> uuidSet = new LinkedHashSet<>(uuids);
+        uuidSet.remove(null);
 
-        Object res = serviceRequestRepository.fetchResult(url, requestInfoWrapper);
+        Map<String, List<String>> departmentsByUuid = new HashMap<>(departmentCache.getAllPresent(uuidSet));
 
-        List<String> departments = null;
+        List<String> missingUuids = new ArrayList<>(uuidSet);
+        missingUuids.removeAll(departmentsByUuid.keySet());
 
-        try {
-            departments = JsonPath.read(res, pgrConstants.HRMS_DEPARTMENT_JSONPATH);
-        } catch (Exception e) {
-            throw new CustomException("PARSING_ERROR", "Failed to parse HRMS response");
+        if (!missingUuids.isEmpty()) {
+            Map<String, List<String>> fetched = searchDepartments(missingUuids, requestInfo);
+            departmentCache.putAll(fetched);
+            departmentsByUuid.putAll(fetched);
         }
 
+        List<String> departments = new ArrayList<>();
+        departmentsByUuid.values().forEach(departments::addAll);
+
         if (CollectionUtils.isEmpty(departments))
             throw new CustomException("DEPARTMENT_NOT_FOUND",
                     "The Department of the user with uuid: " + uuids.toString() + " is not found");
@@ -60,6 +88,42 @@ public class HRMSUtil {
 
     }
 
+    /**
+     * Searches the given employees in HRMS and returns the departments of every
+     * assignment of each employee found
+     *
+     * @param uuids
+     * @param requestInfo
+     * @return Map of employee uuid to departments
+     */
+    private Map<String, List<String>> searchDepartments(List<String> uuids, RequestInfo requestInfo) {
+
+        StringBuilder url = getHRMSURI(uuids);
+
+        RequestInfoWrapper requestInfoWrapper = RequestInfoWrapper.builder().requestInfo(requestInfo).build();
+
+        EmployeeResponse employeeResponse = serviceRequestRepository.fetchResult(url, requestInfoWrapper,
+                EmployeeResponse.class);
+
+        Map<String, List<String>> departmentsByUuid = new HashMap<>();
+        if (employeeResponse.getEmployees() == null)
+            return departmentsByUuid;
+
+        for (Employee employee : employeeResponse.getEmployees()) {
+            if (employee.getUuid() == null)
+                continue;
+            List<String> departments = new ArrayList<>();
+            if (employee.getAssignments() != null) {
+                employee.getAssignments().forEach(assignment -> {
+                    if (assignment.getDepartment() != null)
+                        departments.add(assignment.getDepartment());
+                });
+            }
+            departmentsByUuid.put(employee.getUuid(), Collections.unmodifiableList(departments));
+        }
+        return departmentsByUuid;
+    }
+
     /**
      * Builds HRMS search URL
      * 
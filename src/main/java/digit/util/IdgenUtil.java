@@ -1,6 +1,5 @@
 package digit.util;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import digit.repository.ServiceRequestRepository;
 import digit.config.Configuration;
 import org.egov.common.contract.idgen.IdGenerationRequest;
@@ -22,9 +21,6 @@ import static digit.config.PGRConstants.*;
 @Component
 public class IdgenUtil {
 
-    @Autowired
-    private ObjectMapper mapper;
-
     @Autowired
     private ServiceRequestRepository restRepo;
 
@@ -41,8 +37,7 @@ public class IdgenUtil {
         IdGenerationRequest request = IdGenerationRequest.builder().idRequests(reqList).requestInfo(requestInfo)
                 .build();
         StringBuilder uri = new StringBuilder(configs.getIdGenHost()).append(configs.getIdGenPath());
-        IdGenerationResponse response = mapper.convertValue(restRepo.fetchResult(uri, request),
-                IdGenerationResponse.class);
+        IdGenerationResponse response = restRepo.fetchResult(uri, request, IdGenerationResponse.class);
 
         List<IdResponse> idResponses = response.getIdResponses();
 
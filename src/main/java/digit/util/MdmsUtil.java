@@ -37,14 +37,23 @@ public class MdmsUtil {
      * @return MdmsResponseV2 containing the requested MDMS data
      */
     public MdmsResponseV2 fetchMdmsData(ServiceRequest requestBody, String tenantId, String serviceCode) {
-        RequestInfo requestInfo = requestBody.getRequestInfo();
+        // Prepare the MDMS request criteria
+        MdmsCriteriaV2 mdmsCriteriav2 = getMdmsRequest(requestBody, tenantId, serviceCode);
+        return fetchMdmsData(requestBody.getRequestInfo(), mdmsCriteriav2);
+    }
 
+    /**
+     * Fetches MDMS data matching the given criteria.
+     *
+     * @param requestInfo    The request information
+     * @param mdmsCriteriav2 The MDMS search criteria, including paging if any
+     * @return MdmsResponseV2 containing the requested MDMS data
+     */
+    public MdmsResponseV2 fetchMdmsData(RequestInfo requestInfo, MdmsCriteriaV2 mdmsCriteriav2) {
         // Construct the MDMS API endpoint URI
         StringBuilder uri = new StringBuilder();
         uri.append(configs.getMdmsHost()).append(configs.getMdmsEndPoint());
 
-        // Prepare the MDMS request criteria
-        MdmsCriteriaV2 mdmsCriteriav2 = getMdmsRequest(requestBody, tenantId, serviceCode);
         MdmsCriteriaReqV2 mdmsCriteriaReq = MdmsCriteriaReqV2.builder()
                 .requestInfo(requestInfo)
                 .mdmsCriteria(mdmsCriteriav2)
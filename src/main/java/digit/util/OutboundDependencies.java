@@ -0,0 +1,117 @@
+package digit.util;
+
+import digit.config.Configuration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Names the services PGR calls, so that outbound calls can be measured and
+ * limited per dependency. A dependency is identified by the scheme, host and
+ * port of its configured host url and by the first path segment of its
+ * configured endpoints, so that services behind one gateway are told apart. A
+ * host and segment claimed by two dependencies fails the startup.
+ */
+@Component
+public class OutboundDependencies {
+
+    public static final String USER = "user";
+    public static final String WORKFLOW = "workflow";
+    public static final String MDMS = "mdms";
+    public static final String HRMS = "hrms";
+    public static final String IDGEN = "idgen";
+    public static final String URL_SHORTENER = "urlshortener";
+    public static final String OTHER = "other";
+
+    @Autowired
+    private Configuration config;
+
+    private Map<String, URI> hosts;
+
+    private Map<String, String> namesByRoute;
+
+    @PostConstruct
+    public void initDependencies() {
+        Map<String, List<String>> dependencyPaths = new LinkedHashMap<>();
+        dependencyPaths.put(USER, Arrays.asList(config.getUserContextPath(), config.getUserSearchEndpoint()));
+        dependencyPaths.put(WORKFLOW, Arrays.asList(config.getWfTransitionPath(),
+                config.getWfBusinessServiceSearchPath(), config.getWfProcessInstanceSearchPath()));
+        dependencyPaths.put(MDMS, Collections.singletonList(config.getMdmsEndPoint()));
+        dependencyPaths.put(HRMS, Collections.singletonList(config.getHrmsEndPoint()));
+        dependencyPaths.put(IDGEN, Collections.singletonList(config.getIdGenPath()));
+        dependencyPaths.put(URL_SHORTENER, Collections.singletonList(config.getUrlShortnerEndpoint()));
+
+        Map<String, URI> dependencyHosts = new LinkedHashMap<>();
+        dependencyHosts.put(USER, URI.create(config.getUserHost()));
+        dependencyHosts.put(WORKFLOW, URI.create(config.getWfHost()));
+        dependencyHosts.put(MDMS, URI.create(config.getMdmsHost()));
+        dependencyHosts.put(HRMS, URI.create(config.getHrmsHost()));
+        dependencyHosts.put(IDGEN, URI.create(config.getIdGenHost()));
+        dependencyHosts.put(URL_SHORTENER, URI.create(config.getUrlShortnerHost()));
+        hosts = Collections.unmodifiableMap(dependencyHosts);
+
+        Map<String, String> routes = new HashMap<>();
+        dependencyHosts.forEach((name, uri) -> {
+            for (String path : dependencyPaths.get(name)) {
+                String route = getAuthority(uri) + getFirstSegment(path);
+                String claimedBy = routes.putIfAbsent(route, name);
+                if (claimedBy != null && !claimedBy.equals(name))
+                    throw new IllegalStateException("Dependencies " + claimedBy + " and " + name
+                            + " are both configured at " + route + ", outbound calls can not be told apart");
+            }
+        });
+        namesByRoute = Collections.unmodifiableMap(routes);
+    }
+
+    /**
+     * @return The configured host url of each dependency, by dependency name
+     */
+    public Map<String, URI> getHosts() {
+        return hosts;
+    }
+
+    /**
+     * Returns the name of the dependency the uri points to, or "other"
+     *
+     * @param uri The uri of an outbound request
+     * @return The dependency name
+     */
+    public String getName(URI uri) {
+        return namesByRoute.getOrDefault(getAuthority(uri) + getFirstSegment(uri.getPath()), OTHER);
+    }
+
+    /**
+     * Returns the port of the uri, defaulting it from the scheme
+     *
+     * @param uri The uri
+     * @return The explicit or default port
+     */
+    public static int getPort(URI uri) {
+        if (uri.getPort() >= 0)
+            return uri.getPort();
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private String getAuthority(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + getPort(uri);
+    }
+
+    // "/egov-hrms/employees/_search" gives "/egov-hrms"
+    private static String getFirstSegment(String path) {
+        if (path == null || path.isEmpty())
+            return "/";
+        String trimmed = path.startsWith("/") ? path.substring(1) : path;
+        int end = trimmed.indexOf('/');
+        return "/" + (end < 0 ? trimmed : trimmed.substring(0, end));
+    }
+
+}
@@ -0,0 +1,64 @@
+package digit.util;
+
+import digit.config.Configuration;
+import digit.config.PGRConstants;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every outbound call of the shared RestTemplate as pgr.http.client.requests,
+ * tagged by dependency, method and status, with a percentile histogram when
+ * pgr.metrics.histogram.enabled is set so that latency percentiles can be
+ * aggregated across pods. The call is also recorded as
+ * the http.&lt;dependency&gt; phase of the request it was made for.
+ */
+@Component
+public class OutboundMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    @Autowired
+    private OutboundDependencies dependencies;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            String dependency = dependencies.getName(request.getURI());
+            long elapsed = System.nanoTime() - start;
+            Timer.Builder timer = Timer.builder("pgr.http.client.requests")
+                    .tag("dependency", dependency)
+                    .tag("method", request.getMethod().name())
+                    .tag("status", status);
+            if (Boolean.TRUE.equals(config.getMetricsHistogramEnabled()))
+                timer.publishPercentileHistogram();
+            timer.register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+            requestMetrics.record(PGRConstants.PHASE_HTTP_PREFIX + dependency, elapsed);
+        }
+    }
+
+}
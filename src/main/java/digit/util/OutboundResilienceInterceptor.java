@@ -0,0 +1,80 @@
+package digit.util;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+
+import org.egov.tracer.model.CustomException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+
+import static digit.config.PGRConstants.*;
+
+/**
+ * Guards every outbound call of the shared RestTemplate with the circuit breaker
+ * and the bulkhead of the dependency it goes to.
+ * <ul>
+ * <li>The bulkhead caps the calls in progress per dependency, so a slow service
+ * holds at most that many request threads and endpoints that do not need it keep
+ * their threads.</li>
+ * <li>The circuit breaker opens when too many recent calls failed or were slow and
+ * then fails calls immediately. After the wait duration a few probe calls are let
+ * through and close it again if they succeed.</li>
+ * </ul>
+ * Connection errors, timeouts and 5xx responses count as failures, 4xx responses
+ * are the caller's fault and do not.
+ */
+@Component
+public class OutboundResilienceInterceptor implements ClientHttpRequestInterceptor {
+
+    @Autowired
+    private OutboundDependencies dependencies;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String dependency = dependencies.getName(request.getURI());
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(dependency);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(dependency);
+
+        if (!circuitBreaker.tryAcquirePermission())
+            throw new CustomException(DEPENDENCY_UNAVAILABLE_CODE, String.format(DEPENDENCY_UNAVAILABLE_MESSAGE, dependency));
+
+        if (!bulkhead.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            throw new CustomException(DEPENDENCY_BUSY_CODE, String.format(DEPENDENCY_BUSY_MESSAGE, dependency));
+        }
+
+        long start = circuitBreaker.getCurrentTimestamp();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            long duration = circuitBreaker.getCurrentTimestamp() - start;
+            if (response.getStatusCode().is5xxServerError())
+                circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(),
+                        new HttpServerErrorException(response.getStatusCode()));
+            else
+                circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+            throw e;
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+}
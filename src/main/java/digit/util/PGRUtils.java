@@ -47,6 +47,19 @@ public class PGRUtils {
         }
     }
 
+    /**
+     * Returns the Kafka record key of a service request. All records of one
+     * complaint share the key, so they land on the same partition and are
+     * persisted in the order they were sent.
+     *
+     * @param pgrEntity The entity being sent.
+     * @return The tenant and serviceRequestId of the service.
+     */
+    public String getRecordKey(PGREntity pgrEntity) {
+        Service service = pgrEntity.getService();
+        return service.getTenantId() + ":" + service.getServiceRequestId();
+    }
+
     /**
      * Converts a list of PGREntity objects into a ServiceResponse object.
      *
@@ -0,0 +1,193 @@
+package digit.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache for slowly changing remote definitions.
+ * <ul>
+ * <li>Concurrent misses for the same key are coalesced into a single load, the
+ * other callers wait for its result.</li>
+ * <li>Entries older than the refresh interval are still served while one
+ * background load replaces them (refresh-ahead). Background loads run on their
+ * own executor, never on the caller's thread.</li>
+ * <li>Entries older than the ttl are dropped and loaded again on the next
+ * read.</li>
+ * <li>Invalidating a key also drops the load in flight for it, whose result is
+ * then handed to its waiters but not cached.</li>
+ * </ul>
+ * The loader is passed on every read because remote calls need the current
+ * request's RequestInfo.
+ */
+@Slf4j
+public class RefreshAheadCache<K, V> {
+
+    private final Cache<K, CachedValue<V>> cache;
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final long refreshIntervalMillis;
+
+    private final AsyncUtil asyncUtil;
+
+    private final Executor refreshExecutor;
+
+    public RefreshAheadCache(String name, Duration ttl, Duration refreshInterval, long maximumSize,
+            AsyncUtil asyncUtil, Executor refreshExecutor, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.refreshIntervalMillis = refreshInterval.toMillis();
+        this.asyncUtil = asyncUtil;
+        this.refreshExecutor = refreshExecutor;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * Returns the cached value, loading it with the given loader on a miss.
+     *
+     * @param key    The cache key
+     * @param loader Fetches the value from the remote service
+     * @return The cached or freshly loaded value
+     */
+    public V get(K key, Supplier<V> loader) {
+        CachedValue<V> cached = cache.getIfPresent(key);
+        if (cached == null)
+            return asyncUtil.await(load(key, loader));
+
+        if (System.currentTimeMillis() - cached.getLoadedAt() > refreshIntervalMillis) {
+            // Claim the key before handing the refresh over, so only one caller starts it
+            CompletableFuture<V> refresh = new CompletableFuture<>();
+            if (inFlight.putIfAbsent(key, refresh) == null) {
+                refresh.whenComplete((value, e) -> {
+                    if (e != null)
+                        log.error("Background refresh failed, serving the stale entry for " + key, e);
+                });
+                try {
+                    refreshExecutor.execute(() -> run(key, loader, refresh));
+                } catch (RuntimeException e) {
+                    inFlight.remove(key, refresh);
+                    refresh.completeExceptionally(e);
+                }
+            }
+        }
+        return cached.getValue();
+    }
+
+    /**
+     * Loads the value again unless it was loaded less than minAge ago, joining a
+     * load already in flight for the key. Used when a lookup inside the cached
+     * value misses, so repeated misses do not turn into a reload each.
+     *
+     * @param key    The cache key
+     * @param minAge The minimum age of the cached value before it is reloaded
+     * @param loader Fetches the value from the remote service
+     * @return The cached or freshly loaded value
+     */
+    public V reloadIfOlderThan(K key, Duration minAge, Supplier<V> loader) {
+        CachedValue<V> cached = cache.getIfPresent(key);
+        if (cached != null && System.currentTimeMillis() - cached.getLoadedAt() < minAge.toMillis())
+            return cached.getValue();
+        return asyncUtil.await(load(key, loader));
+    }
+
+    public void put(K key, V value) {
+        cache.put(key, new CachedValue<>(value, System.currentTimeMillis()));
+    }
+
+    /**
+     * Replaces the cached value with the result of the function, keeping its load
+     * time so that it is still refreshed on schedule. Keys that are not cached are
+     * left alone, the next read loads them.
+     *
+     * @param key      The cache key
+     * @param function Returns the new value for the cached one, must not change it
+     */
+    public void update(K key, UnaryOperator<V> function) {
+        cache.asMap().computeIfPresent(key,
+                (k, cached) -> new CachedValue<>(function.apply(cached.getValue()), cached.getLoadedAt()));
+    }
+
+    /**
+     * Drops the cached value and the load in flight for the key, under the same
+     * lock the load takes to cache its result, so a load started before the
+     * invalidation never brings the old value back.
+     *
+     * @param key The cache key
+     */
+    public void invalidate(K key) {
+        inFlight.compute(key, (k, load) -> {
+            cache.invalidate(k);
+            return null;
+        });
+    }
+
+    public void invalidateAll() {
+        inFlight.keySet().forEach(this::invalidate);
+        cache.invalidateAll();
+    }
+
+    /**
+     * Loads the value on the calling thread, or joins the load in flight for the
+     * key for at most pgr.enrichment.timeout.ms
+     */
+    private CompletableFuture<V> load(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlightLoad = inFlight.putIfAbsent(key, future);
+        if (inFlightLoad != null)
+            return asyncUtil.withTimeout(inFlightLoad);
+
+        run(key, loader, future);
+        return future;
+    }
+
+    /**
+     * Runs the load claimed with the future. The value is cached only if the load
+     * still holds its claim, i.e. the key was not invalidated meanwhile. The future
+     * is completed whatever the loader throws, Errors included, so no waiter is
+     * left hanging.
+     */
+    private void run(K key, Supplier<V> loader, CompletableFuture<V> future) {
+        try {
+            V value = loader.get();
+            inFlight.computeIfPresent(key, (k, load) -> {
+                if (load != future)
+                    return load;
+                put(k, value);
+                return null;
+            });
+            future.complete(value);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedValue<V> {
+
+        private final V value;
+
+        private final long loadedAt;
+
+    }
+
+}
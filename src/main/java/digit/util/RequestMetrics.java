@@ -0,0 +1,248 @@
+package digit.util;
+
+import digit.config.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static digit.config.PGRConstants.*;
+
+/**
+ * Times the phases of a request as pgr.request.phase, tagged by endpoint, phase
+ * and tenant. The endpoint and tenant are taken from the scope the service opens
+ * for the request, so nested components only name their phase. Outbound calls
+ * and SQL statements are recorded as http.&lt;dependency&gt; and db.&lt;statement&gt;
+ * phases of the same timer.
+ * <p>
+ * Only the tenants listed in pgr.metrics.tenant.tags get their own tag. A city
+ * of a listed state is tagged with the state, any other tenant with "other", so
+ * the series are bounded by configuration and not by the tenant ids clients send,
+ * and are the same on every pod.
+ * <p>
+ * While a {@link RequestTiming} is started on the thread, every recorded phase
+ * is also added to it for the Server-Timing header.
+ */
+@Component
+public class RequestMetrics {
+
+    public static final String NONE = "none";
+
+    static final String OTHER = "other";
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static final ThreadLocal<RequestTiming> TIMING = new ThreadLocal<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Configuration config;
+
+    private Set<String> tenantTags;
+
+    // Bounded by endpoints x phases x tenant tags, registered once each
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadTenantTags() {
+        tenantTags = StringUtils.commaDelimitedListToSet(config.getMetricsTenantTags());
+    }
+
+    /**
+     * Opens the scope of a request on the current thread. Closing it records the
+     * total phase and restores the scope that was open before.
+     *
+     * @param endpoint The endpoint being served
+     * @param tenantId The tenant of the request, may be null
+     * @return The scope to close when the request is done
+     */
+    public Scope begin(String endpoint, String tenantId) {
+        Scope scope = new Scope(endpoint, getTenantTag(tenantId), CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public <T> T time(String phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    public void time(String phase, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the phase against the scope of the current thread, or against
+     * endpoint "none" outside of a request
+     *
+     * @param phase The phase that took the time
+     * @param nanos The time taken
+     */
+    public void record(String phase, long nanos) {
+        Scope scope = CURRENT.get();
+        record(scope == null ? NONE : scope.getEndpoint(), phase, scope == null ? NONE : scope.getTenant(), nanos);
+
+        RequestTiming timing = TIMING.get();
+        if (timing != null)
+            timing.add(phase, nanos);
+    }
+
+    /**
+     * Counts rows read from the database for the Server-Timing header
+     *
+     * @param rows The number of rows read
+     */
+    public void addRows(int rows) {
+        RequestTiming timing = TIMING.get();
+        if (timing != null)
+            timing.addRows(rows);
+    }
+
+    /**
+     * Starts accumulating the phases recorded on this thread, and on the threads
+     * work is propagated to, until {@link #stopTiming} is called
+     */
+    public RequestTiming startTiming() {
+        RequestTiming timing = new RequestTiming();
+        TIMING.set(timing);
+        return timing;
+    }
+
+    /**
+     * @return The timing started on this thread, or null
+     */
+    public RequestTiming getTiming() {
+        return TIMING.get();
+    }
+
+    public void stopTiming() {
+        TIMING.remove();
+    }
+
+    /**
+     * Wraps the supplier so it runs in the scope of the calling thread, used when
+     * work is handed to another executor
+     */
+    public <T> Supplier<T> propagate(Supplier<T> supplier) {
+        Scope scope = CURRENT.get();
+        RequestTiming timing = TIMING.get();
+        if (scope == null && timing == null)
+            return supplier;
+        return () -> {
+            Scope previous = CURRENT.get();
+            RequestTiming previousTiming = TIMING.get();
+            set(CURRENT, scope);
+            set(TIMING, timing);
+            try {
+                return supplier.get();
+            } finally {
+                set(CURRENT, previous);
+                set(TIMING, previousTiming);
+            }
+        };
+    }
+
+    public Runnable propagate(Runnable runnable) {
+        Supplier<Void> supplier = propagate(() -> {
+            runnable.run();
+            return null;
+        });
+        return supplier::get;
+    }
+
+    private void record(String endpoint, String phase, String tenant, long nanos) {
+        timers.computeIfAbsent(new TimerKey(endpoint, phase, tenant), this::registerTimer)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer registerTimer(TimerKey key) {
+        Timer.Builder timer = Timer.builder("pgr.request.phase")
+                .tag("endpoint", key.endpoint)
+                .tag("phase", key.phase)
+                .tag("tenant", key.tenant);
+        if (Boolean.TRUE.equals(config.getMetricsHistogramEnabled()))
+            timer.publishPercentileHistogram();
+        return timer.register(meterRegistry);
+    }
+
+    private String getTenantTag(String tenantId) {
+        if (tenantId == null)
+            return NONE;
+        if (tenantTags.contains(tenantId))
+            return tenantId;
+        String stateTenantId = tenantId.split("\\.")[0];
+        if (tenantTags.contains(stateTenantId))
+            return stateTenantId;
+        return OTHER;
+    }
+
+    private static <T> void set(ThreadLocal<T> threadLocal, T value) {
+        if (value == null)
+            threadLocal.remove();
+        else
+            threadLocal.set(value);
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class TimerKey {
+
+        private final String endpoint;
+
+        private final String phase;
+
+        private final String tenant;
+
+    }
+
+    public class Scope implements AutoCloseable {
+
+        @Getter
+        private final String endpoint;
+
+        @Getter
+        private final String tenant;
+
+        private final Scope previous;
+
+        private final long start = System.nanoTime();
+
+        private Scope(String endpoint, String tenant, Scope previous) {
+            this.endpoint = endpoint;
+            this.tenant = tenant;
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            record(endpoint, PHASE_TOTAL, tenant, System.nanoTime() - start);
+            set(CURRENT, previous);
+        }
+
+    }
+
+}
@@ -0,0 +1,102 @@
+package digit.util;
+
+import digit.web.models.ResponseTiming;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static digit.config.PGRConstants.*;
+
+/**
+ * Accumulates where the time of one request went, for the Server-Timing header.
+ * Phases are folded into a fixed set of categories held in one array, so timing
+ * a request costs two allocations however many calls it makes. Enrichment work
+ * on other threads adds to the same accumulator.
+ */
+public class RequestTiming {
+
+    private static final String[] CATEGORIES = { "db", OutboundDependencies.USER, OutboundDependencies.WORKFLOW,
+            OutboundDependencies.MDMS, OutboundDependencies.HRMS, OutboundDependencies.IDGEN, PHASE_KAFKA };
+
+    private static final int DB = 0;
+
+    private static final int KAFKA = CATEGORIES.length - 1;
+
+    private static final int ROWS = CATEGORIES.length;
+
+    private static final int REMOTE_CALLS = CATEGORIES.length + 1;
+
+    private final AtomicLongArray values = new AtomicLongArray(CATEGORIES.length + 2);
+
+    private final long start = System.nanoTime();
+
+    /**
+     * Adds the phase to its category, phases outside of the categories are ignored
+     *
+     * @param phase The phase recorded by {@link RequestMetrics}
+     * @param nanos The time taken
+     */
+    void add(String phase, long nanos) {
+        int category = getCategory(phase);
+        if (category >= 0)
+            values.addAndGet(category, nanos);
+        if (phase.startsWith(PHASE_HTTP_PREFIX))
+            values.incrementAndGet(REMOTE_CALLS);
+    }
+
+    void addRows(int rows) {
+        values.addAndGet(ROWS, rows);
+    }
+
+    /**
+     * Renders the header value, e.g. db;dur=12.4, user;dur=3.1, total;dur=40.2, rows;desc="50"
+     */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder(160);
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            long nanos = values.get(i);
+            if (nanos > 0)
+                header.append(CATEGORIES[i]).append(";dur=").append(toMillis(nanos)).append(", ");
+        }
+        header.append(PHASE_TOTAL).append(";dur=").append(toMillis(System.nanoTime() - start))
+                .append(", rows;desc=\"").append(values.get(ROWS))
+                .append("\", calls;desc=\"").append(values.get(REMOTE_CALLS)).append('"');
+        return header.toString();
+    }
+
+    public ResponseTiming toResponseTiming() {
+        return ResponseTiming.builder()
+                .db(toMillis(values.get(DB)))
+                .user(toMillis(values.get(1)))
+                .workflow(toMillis(values.get(2)))
+                .mdms(toMillis(values.get(3)))
+                .hrms(toMillis(values.get(4)))
+                .idgen(toMillis(values.get(5)))
+                .kafka(toMillis(values.get(KAFKA)))
+                .total(toMillis(System.nanoTime() - start))
+                .rowsScanned(values.get(ROWS))
+                .remoteCalls(values.get(REMOTE_CALLS))
+                .build();
+    }
+
+    private static int getCategory(String phase) {
+        if (phase.startsWith(PHASE_DB_PREFIX))
+            return DB;
+        if (PHASE_KAFKA.equals(phase))
+            return KAFKA;
+        if (!phase.startsWith(PHASE_HTTP_PREFIX))
+            return -1;
+        for (int i = 1; i < KAFKA; i++) {
+            if (phase.regionMatches(PHASE_HTTP_PREFIX.length(), CATEGORIES[i], 0, CATEGORIES[i].length())
+                    && phase.length() == PHASE_HTTP_PREFIX.length() + CATEGORIES[i].length())
+                return i;
+        }
+        return -1;
+    }
+
+    // Milliseconds rounded to a tenth
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1) * 10) / 10.0;
+    }
+
+}
@@ -0,0 +1,112 @@
+package digit.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import digit.config.ErrorConstants;
+import digit.web.models.RequestSearchCriteria;
+import digit.web.models.SearchCursor;
+import digit.web.models.Service;
+
+import org.egov.tracer.model.CustomException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static digit.config.PGRConstants.*;
+
+@Component
+public class SearchCursorUtil {
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    /**
+     * Builds the opaque cursor pointing just past the given service, which must be
+     * the last row of the page in SQL order.
+     *
+     * @param criteria The criteria the page was fetched with
+     * @param service  The last service of the page
+     * @return Base64url encoded cursor
+     */
+    public String encode(RequestSearchCriteria criteria, Service service) {
+        SearchCursor cursor = SearchCursor.builder()
+                .sortBy(getSortKey(criteria))
+                .sortOrder(getSortOrder(criteria))
+                .value(getSortValue(criteria, service))
+                .id(service.getId())
+                .build();
+        try {
+            byte[] json = mapper.writeValueAsBytes(cursor);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new CustomException(ErrorConstants.PARSING_ERROR_CODE, "Failed to build search cursor");
+        }
+    }
+
+    /**
+     * Decodes the cursor present in the criteria. The cursor must have been issued
+     * for the same sortBy and sortOrder as the current search, a cursor continuing
+     * in the other direction would skip rows.
+     *
+     * @param criteria The search criteria carrying the cursor
+     * @return The decoded cursor
+     */
+    public SearchCursor decode(RequestSearchCriteria criteria) {
+        SearchCursor cursor;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(criteria.getCursor());
+            cursor = mapper.readValue(new String(json, StandardCharsets.UTF_8), SearchCursor.class);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new CustomException(ErrorConstants.INVALID_SEARCH, INVALID_CURSOR_MESSAGE);
+        }
+
+        if (cursor.getId() == null || cursor.getValue() == null || !getSortKey(criteria).equals(cursor.getSortBy())
+                || !getSortOrder(criteria).equals(cursor.getSortOrder()))
+            throw new CustomException(ErrorConstants.INVALID_SEARCH, INVALID_CURSOR_MESSAGE);
+
+        // createdtime travels as a JSON number, the remaining sort keys as strings
+        if (criteria.getSortBy() == null) {
+            if (!(cursor.getValue() instanceof Number))
+                throw new CustomException(ErrorConstants.INVALID_SEARCH, INVALID_CURSOR_MESSAGE);
+            cursor.setValue(((Number) cursor.getValue()).longValue());
+        } else {
+            cursor.setValue(cursor.getValue().toString());
+        }
+        return cursor;
+    }
+
+    private String getSortKey(RequestSearchCriteria criteria) {
+        return criteria.getSortBy() == null ? CREATED_TIME : criteria.getSortBy().name();
+    }
+
+    // Search sorts DESC unless ASC is asked for
+    private String getSortOrder(RequestSearchCriteria criteria) {
+        return criteria.getSortOrder() == RequestSearchCriteria.SortOrder.ASC
+                ? RequestSearchCriteria.SortOrder.ASC.name()
+                : RequestSearchCriteria.SortOrder.DESC.name();
+    }
+
+    // A missing string key is sorted as an empty string by the search, see PGRQueryBuilder.getSortColumn
+    private Object getSortValue(RequestSearchCriteria criteria, Service service) {
+        if (criteria.getSortBy() == null)
+            return service.getAuditDetails().getCreatedTime();
+
+        String value;
+        switch (criteria.getSortBy()) {
+            case locality:
+                value = service.getAddress() == null || service.getAddress().getLocality() == null ? null
+                        : service.getAddress().getLocality().getCode();
+                break;
+            case applicationStatus:
+                value = service.getApplicationStatus();
+                break;
+            default:
+                value = service.getServiceRequestId();
+        }
+        return value == null ? "" : value;
+    }
+}
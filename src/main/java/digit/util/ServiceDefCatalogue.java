@@ -0,0 +1,169 @@
+package digit.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import digit.config.Configuration;
+import digit.web.models.Mdms;
+import digit.web.models.MdmsCriteriaV2;
+import digit.web.models.ServiceDef;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.egov.common.contract.request.RequestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per tenant catalogue of the service definitions configured in MDMS, keyed by
+ * service code. A tenant's definitions are loaded in pages on first use, swapped
+ * in as one immutable map and refreshed in the background, so validators read
+ * them without locking or remote calls.
+ */
+@Slf4j
+@Component
+public class ServiceDefCatalogue {
+
+    @Autowired
+    private MdmsUtil mdmsUtil;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private AsyncUtil asyncUtil;
+
+    @Autowired
+    @Qualifier("cacheRefreshExecutor")
+    private Executor cacheRefreshExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private RefreshAheadCache<String, Map<String, ServiceDef>> catalogue;
+
+    @PostConstruct
+    public void initCatalogue() {
+        catalogue = new RefreshAheadCache<>("pgr.mdms.servicedef",
+                Duration.ofSeconds(config.getServiceDefCacheTtl()),
+                Duration.ofSeconds(config.getServiceDefCacheRefresh()),
+                1000, asyncUtil, cacheRefreshExecutor, meterRegistry);
+    }
+
+    /**
+     * Loads the catalogue of the configured tenants at startup so the first
+     * requests do not pay for the MDMS calls. A failure is logged and the tenant
+     * is loaded on first use instead.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadCatalogue() {
+        for (String tenantId : StringUtils.commaDelimitedListToSet(config.getServiceDefPreloadTenants())) {
+            if (!StringUtils.hasText(tenantId))
+                continue;
+            try {
+                catalogue.put(tenantId, loadCatalogue(new RequestInfo(), tenantId));
+            } catch (RuntimeException e) {
+                log.error("Failed to preload the service definitions of tenant " + tenantId, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the service definition for the given code. A code missing from the
+     * catalogue reloads the tenant once, unless it was loaded within the configured
+     * miss reload interval, so a service code added in MDMS is picked up without
+     * waiting for the next refresh.
+     *
+     * @param requestInfo The request information used for the MDMS call
+     * @param tenantId    The tenant of the service request
+     * @param serviceCode The service code to look up
+     * @return The service definition, or null if MDMS does not have the code
+     */
+    public ServiceDef getServiceDef(RequestInfo requestInfo, String tenantId, String serviceCode) {
+        ServiceDef serviceDef = catalogue.get(tenantId, () -> loadCatalogue(requestInfo, tenantId)).get(serviceCode);
+        if (serviceDef != null)
+            return serviceDef;
+
+        return catalogue.reloadIfOlderThan(tenantId, Duration.ofSeconds(config.getServiceDefMissReload()),
+                () -> loadCatalogue(requestInfo, tenantId)).get(serviceCode);
+    }
+
+    /**
+     * Returns the SLA of the service code in milliseconds, or pgr.sla.default.hours
+     * when MDMS does not set slaHours for it
+     *
+     * @param requestInfo The request information used for the MDMS call
+     * @param tenantId    The tenant of the service request
+     * @param serviceCode The service code to look up
+     * @return The SLA in milliseconds
+     */
+    public long getSla(RequestInfo requestInfo, String tenantId, String serviceCode) {
+        ServiceDef serviceDef = getServiceDef(requestInfo, tenantId, serviceCode);
+        if (serviceDef == null || serviceDef.getSlaHours() == null)
+            return TimeUnit.HOURS.toMillis(config.getDefaultSlaHours());
+        return serviceDef.getSlaHours().multiply(BigDecimal.valueOf(TimeUnit.HOURS.toMillis(1))).longValue();
+    }
+
+    /**
+     * Drops the catalogue of the given tenant, or of every tenant when tenantId is
+     * null, so the next lookup loads it from MDMS.
+     *
+     * @param tenantId The tenant to invalidate
+     */
+    public void invalidate(String tenantId) {
+        if (tenantId == null)
+            catalogue.invalidateAll();
+        else
+            catalogue.invalidate(tenantId);
+    }
+
+    private Map<String, ServiceDef> loadCatalogue(RequestInfo requestInfo, String tenantId) {
+        Map<String, ServiceDef> serviceDefs = new HashMap<>();
+        int pageSize = config.getServiceDefPageSize();
+        int offset = 0;
+
+        while (true) {
+            MdmsCriteriaV2 mdmsCriteriaV2 = MdmsCriteriaV2.builder()
+                    .tenantId(tenantId)
+                    .schemaCode(config.getServiceDefSchemaCode())
+                    .offset(offset)
+                    .limit(pageSize)
+                    .build();
+            List<Mdms> page = mdmsUtil.fetchMdmsData(requestInfo, mdmsCriteriaV2).getMdms();
+            if (page == null)
+                break;
+
+            page.forEach(mdms -> serviceDefs.put(mdms.getUniqueIdentifier(), toServiceDef(mdms)));
+
+            if (page.size() < pageSize)
+                break;
+            offset += pageSize;
+        }
+        return Collections.unmodifiableMap(serviceDefs);
+    }
+
+    private ServiceDef toServiceDef(Mdms mdms) {
+        ServiceDef serviceDef = mapper.convertValue(mdms.getData(), ServiceDef.class);
+        serviceDef.setTenantId(mdms.getTenantId());
+        serviceDef.setData(mdms.getData());
+        return serviceDef;
+    }
+
+}
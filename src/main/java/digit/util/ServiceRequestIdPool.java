@@ -0,0 +1,157 @@
+package digit.util;
+
+import digit.config.Configuration;
+import digit.repository.IdGenRepository;
+import digit.web.models.IdResponse;
+
+import lombok.extern.slf4j.Slf4j;
+import org.egov.common.contract.request.RequestInfo;
+import org.egov.tracer.model.CustomException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static digit.config.PGRConstants.*;
+
+/**
+ * Per tenant pool of serviceRequestIds leased from IdGen in blocks, so that a
+ * create takes an id from memory instead of calling IdGen. The pool is refilled
+ * in the background once it drops to the low watermark, on a pool of its own so
+ * a refill never runs on, or queues behind, a request's enrichment.
+ * <p>
+ * The id format carries the date (PGR-[cy:yyyy-MM-dd]-[SEQ_EG_PGR_ID]), so a
+ * block is only handed out on the day it was leased. Ids left over when the day
+ * rolls over, or when the pod stops, are discarded and leave gaps in the
+ * sequence.
+ */
+@Slf4j
+@Component
+public class ServiceRequestIdPool {
+
+    @Autowired
+    private IdGenRepository idGenRepository;
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    @Qualifier("idPoolRefillExecutor")
+    private AsyncTaskExecutor idPoolRefillExecutor;
+
+    private final ConcurrentMap<String, TenantPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Returns count serviceRequestIds for the tenant, from the pool when it has
+     * enough ids leased today, otherwise from a block leased on the calling thread.
+     *
+     * @param requestInfo The request information used for the IdGen call
+     * @param tenantId    The tenant of the service requests
+     * @param count       The number of ids required
+     * @return The ids
+     */
+    public List<String> getIds(RequestInfo requestInfo, String tenantId, int count) {
+        int blockSize = config.getIdGenPoolBlockSize();
+        if (count > blockSize)
+            return fetchIds(requestInfo, tenantId, count);
+
+        TenantPool pool = getPool(tenantId);
+        List<String> ids = new ArrayList<>(count);
+        String id;
+        while (ids.size() < count && (id = pool.ids.poll()) != null)
+            ids.add(id);
+
+        if (ids.size() < count) {
+            LocalDate day = today();
+            List<String> block = fetchIds(requestInfo, tenantId, blockSize);
+            int needed = Math.min(count - ids.size(), block.size());
+            ids.addAll(block.subList(0, needed));
+            if (day.equals(today()))
+                getPool(tenantId).ids.addAll(block.subList(needed, block.size()));
+        }
+
+        if (pool.ids.size() <= config.getIdGenPoolLowWatermark())
+            refillAsync(requestInfo, tenantId, pool);
+
+        return ids;
+    }
+
+    /**
+     * Returns the pool of ids leased today, replacing the pool of a previous day
+     */
+    private TenantPool getPool(String tenantId) {
+        LocalDate day = today();
+        return pools.compute(tenantId, (key, pool) -> pool == null || !pool.day.equals(day) ? new TenantPool(day) : pool);
+    }
+
+    private void refillAsync(RequestInfo requestInfo, String tenantId, TenantPool pool) {
+        if (!pool.refilling.compareAndSet(false, true))
+            return;
+
+        try {
+            idPoolRefillExecutor.execute(() -> {
+                try {
+                    List<String> block = fetchIds(requestInfo, tenantId, config.getIdGenPoolBlockSize());
+                    // A block leased across midnight may carry either date, drop it
+                    if (pool.day.equals(today()))
+                        pool.ids.addAll(block);
+                } catch (RuntimeException e) {
+                    log.error("Failed to refill the serviceRequestId pool of tenant " + tenantId, e);
+                } finally {
+                    pool.refilling.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // The next create below the watermark tries again
+            pool.refilling.set(false);
+            log.warn("serviceRequestId pool refill of tenant " + tenantId + " dropped, the refill pool is full");
+        }
+    }
+
+    private List<String> fetchIds(RequestInfo requestInfo, String tenantId, int count) {
+        List<IdResponse> idResponses = idGenRepository.getId(requestInfo, tenantId,
+                config.getServiceRequestIdGenName(), config.getServiceRequestIdGenFormat(), count)
+                .getIdResponses();
+
+        // Throw an exception if no IDs, or fewer than requested, are returned from the IDGen service
+        if (CollectionUtils.isEmpty(idResponses))
+            throw new CustomException(IDGEN_ERROR, NO_IDS_FOUND_ERROR);
+        if (idResponses.size() < count)
+            throw new CustomException(IDGEN_ERROR, TOO_FEW_IDS_ERROR + idResponses.size() + " of " + count);
+
+        return idResponses.stream()
+                .map(IdResponse::getId).collect(Collectors.toList());
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(ZoneId.of(config.getIdGenTimeZone()));
+    }
+
+    private static class TenantPool {
+
+        private final LocalDate day;
+
+        private final Queue<String> ids = new ConcurrentLinkedQueue<>();
+
+        private final AtomicBoolean refilling = new AtomicBoolean(false);
+
+        private TenantPool(LocalDate day) {
+            this.day = day;
+        }
+
+    }
+
+}
@@ -0,0 +1,125 @@
+package digit.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import digit.config.Configuration;
+import digit.web.models.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Process wide cache of citizens fetched from the user service, keyed by uuid and
+ * by (state level tenant, mobile number). Users are copied on the way in and out
+ * so that callers can not change a cached entry.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<String, User> uuidCache;
+
+    private final Cache<String, List<User>> mobileNumberCache;
+
+    @Autowired
+    public UserCache(Configuration config, MeterRegistry meterRegistry) {
+        Duration ttl = Duration.ofSeconds(config.getUserCacheTtl());
+
+        this.uuidCache = Caffeine.newBuilder()
+                .maximumSize(config.getUserCacheMaxSize())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        this.mobileNumberCache = Caffeine.newBuilder()
+                .maximumSize(config.getUserCacheMaxSize())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, uuidCache, "pgr.user.uuid");
+        CaffeineCacheMetrics.monitor(meterRegistry, mobileNumberCache, "pgr.user.mobilenumber");
+    }
+
+    /**
+     * Returns the cached users among the given uuids, missing uuids are left out
+     *
+     * @param uuids The uuids to look up
+     * @return Map of uuid to user for the uuids that were cached
+     */
+    public Map<String, User> getAllPresent(Collection<String> uuids) {
+        Map<String, User> users = new HashMap<>();
+        uuidCache.getAllPresent(uuids).forEach((uuid, user) -> users.put(uuid, copy(user)));
+        return users;
+    }
+
+    public User get(String uuid) {
+        User user = uuidCache.getIfPresent(uuid);
+        return user == null ? null : copy(user);
+    }
+
+    public void putAll(Collection<User> users) {
+        users.forEach(user -> {
+            if (user.getUuid() != null)
+                uuidCache.put(user.getUuid(), copy(user));
+        });
+    }
+
+    /**
+     * Returns the cached result of a mobile number search, or null when the search
+     * has not been cached.
+     */
+    public List<User> getByMobileNumber(String stateLevelTenant, String mobileNumber) {
+        List<User> users = mobileNumberCache.getIfPresent(getMobileNumberKey(stateLevelTenant, mobileNumber));
+        return users == null ? null : copy(users);
+    }
+
+    /**
+     * Caches the result of a mobile number search. A search that found no citizen
+     * is not cached: the citizen may be created on another pod, whose eviction does
+     * not reach this one.
+     */
+    public void putByMobileNumber(String stateLevelTenant, String mobileNumber, List<User> users) {
+        if (CollectionUtils.isEmpty(users))
+            return;
+        mobileNumberCache.put(getMobileNumberKey(stateLevelTenant, mobileNumber), copy(users));
+    }
+
+    /**
+     * Drops every entry the given user could be found under. Called whenever PGR
+     * creates or updates a user so that the next lookup goes to the user service.
+     *
+     * @param stateLevelTenant The state level tenant of the user
+     * @param user             The created or updated user
+     */
+    public void evict(String stateLevelTenant, User user) {
+        if (user.getUuid() != null)
+            uuidCache.invalidate(user.getUuid());
+        if (user.getMobileNumber() != null)
+            mobileNumberCache.invalidate(getMobileNumberKey(stateLevelTenant, user.getMobileNumber()));
+    }
+
+    private String getMobileNumberKey(String stateLevelTenant, String mobileNumber) {
+        return stateLevelTenant + "|" + mobileNumber;
+    }
+
+    private User copy(User user) {
+        return user.toBuilder().build();
+    }
+
+    private List<User> copy(List<User> users) {
+        return users.stream().map(this::copy).collect(Collectors.toList());
+    }
+
+}
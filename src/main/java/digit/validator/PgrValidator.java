@@ -12,11 +12,13 @@ import digit.config.ErrorConstants;
 import digit.config.PGRConstants;
 import digit.repository.PGRRepository;
 import digit.util.HRMSUtil;
-import digit.util.MdmsUtil;
-import digit.web.models.MdmsResponseV2;
+import digit.util.RequestMetrics;
+import digit.util.ServiceDefCatalogue;
+import digit.web.models.BulkServiceRequest;
 import digit.web.models.PGREntity;
 import digit.web.models.RequestSearchCriteria;
 import digit.web.models.Service;
+import digit.web.models.ServiceDef;
 import digit.web.models.ServiceRequest;
 import digit.web.models.User;
 
@@ -35,7 +37,7 @@ public class PgrValidator {
     private Configuration config;
 
     @Autowired
-    private MdmsUtil mdmsUtil;
+    private ServiceDefCatalogue serviceDefCatalogue;
 
     @Autowired
     private PGRRepository pgrRepository;
@@ -46,6 +48,9 @@ public class PgrValidator {
     @Autowired
     private ErrorConstants errorConstants;
 
+    @Autowired
+    private RequestMetrics requestMetrics;
+
     /**
      * This method validates the creation request for the ServiceRequest object.
      * It ensures that both citizen and source are valid.
@@ -59,6 +64,22 @@ public class PgrValidator {
         validateMDMS(requestBody);
     }
 
+    /**
+     * Validates the envelope of a bulk create. The services themselves are
+     * validated one by one with {@link #validateCreateRequest}, so that an invalid
+     * service fails on its own.
+     *
+     * @param request The bulk create request
+     */
+    public void validateBulkCreateRequest(BulkServiceRequest request) {
+        if (request.getRequestInfo() == null || request.getRequestInfo().getUserInfo() == null)
+            throw new CustomException("INVALID_REQUEST", "RequestInfo with userInfo is mandatory");
+
+        if (request.getPgrEntities().size() > config.getBulkCreateMaxSize())
+            throw new CustomException("INVALID_REQUEST",
+                    pgrConstants.BULK_CREATE_TOO_LARGE_MESSAGE + config.getBulkCreateMaxSize());
+    }
+
     /**
      * This method validates the citizen object within the ServiceRequest.
      * It checks that the citizen object is not null and that required fields
@@ -165,6 +186,16 @@ public class PgrValidator {
         if (criteria.getIds() != null && !allowedParams.contains("ids"))
             throw new CustomException(errorConstants.INVALID_SEARCH, "Search on ids is not allowed");
 
+        if (criteria.getCursor() != null && criteria.getOffset() != null && criteria.getOffset() > 0)
+            throw new CustomException(errorConstants.INVALID_SEARCH, "Cannot specify offset along with a cursor");
+
+        if (criteria.getExpand() != null) {
+            List<String> allowedExpansions = Arrays.asList(pgrConstants.EXPAND_CITIZEN, pgrConstants.EXPAND_WORKFLOW);
+            if (!allowedExpansions.containsAll(criteria.getExpand()))
+                throw new CustomException(errorConstants.INVALID_SEARCH,
+                        "Only " + allowedExpansions + " can be expanded");
+        }
+
     }
 
     /**
@@ -178,57 +209,64 @@ public class PgrValidator {
      * @param mdmsData The MDMS data (JSON) to check against
      */
     private void validateMDMS(ServiceRequest requestBody) {
-        // Fetch MDMS data based on the request
-        MdmsResponseV2 mdmsData = mdmsUtil.fetchMdmsData(
-                requestBody,
-                requestBody.getPgrEntity().getService().getTenantId(),
-                requestBody.getPgrEntity().getService().getServiceCode());
-
-        // Check if the fetched MDMS data is null or contains no entries
-        if (mdmsData == null || mdmsData.getMdms() == null || mdmsData.getMdms().isEmpty()) {
+        getServiceDef(requestBody);
+    }
+
+    /**
+     * Looks up the service definition of the request's service code in the MDMS
+     * catalogue and rejects the request if MDMS does not have it.
+     *
+     * @param requestBody The ServiceRequest being validated
+     * @return The service definition of the service code
+     */
+    private ServiceDef getServiceDef(ServiceRequest requestBody) {
+        Service service = requestBody.getPgrEntity().getService();
+        ServiceDef serviceDef = requestMetrics.time(PGRConstants.PHASE_VALIDATE_MDMS,
+                () -> serviceDefCatalogue.getServiceDef(requestBody.getRequestInfo(), service.getTenantId(),
+                        service.getServiceCode()));
+
+        if (serviceDef == null) {
             throw new CustomException(
                     "INVALID_SERVICECODE",
-                    "The service code: " + requestBody.getPgrEntity().getService().getServiceCode()
-                            + " is not present in MDMS");
+                    "The service code: " + service.getServiceCode() + " is not present in MDMS");
         }
+        return serviceDef;
     }
 
-    public void validateUpdate(ServiceRequest request) {
+    /**
+     * Validates the update request against MDMS, HRMS and the stored record
+     *
+     * @param request The update request
+     * @return The service as stored before the update
+     */
+    public Service validateUpdate(ServiceRequest request) {
         String id = request.getPgrEntity().getService().getId();
         validateSource(request.getPgrEntity().getService().getSource());
         validateMDMSAndDepartment(request);
         validateReOpen(request);
         RequestSearchCriteria criteria = RequestSearchCriteria.builder().ids(Collections.singleton(id)).build();
         criteria.setIsPlainSearch(false);
-        List<PGREntity> serviceWrappers = pgrRepository.getServiceWrappers(criteria);
+        List<PGREntity> serviceWrappers = requestMetrics.time(PGRConstants.PHASE_VALIDATE_EXISTING,
+                () -> pgrRepository.getServiceWrappers(criteria));
 
         if (CollectionUtils.isEmpty(serviceWrappers))
             throw new CustomException("INVALID_UPDATE", "The record that you are trying to update does not exists");
 
+        return serviceWrappers.get(0).getService();
     }
 
     private void validateMDMSAndDepartment(ServiceRequest requestBody) {
-        MdmsResponseV2 mdmsData = mdmsUtil.fetchMdmsData(
-                requestBody,
-                requestBody.getPgrEntity().getService().getTenantId(),
-                requestBody.getPgrEntity().getService().getServiceCode());
-
-        // Check if the fetched MDMS data is null or contains no entries
-        if (mdmsData == null || mdmsData.getMdms() == null || mdmsData.getMdms().isEmpty()) {
-            throw new CustomException(
-                    "INVALID_SERVICECODE",
-                    "The service code: " + requestBody.getPgrEntity().getService().getServiceCode()
-                            + " is not present in MDMS");
-        }
+        ServiceDef serviceDef = getServiceDef(requestBody);
 
         List<String> assignes = requestBody.getPgrEntity().getWorkflow().getAssignes();
 
         if (CollectionUtils.isEmpty(assignes))
             return;
 
-        List<String> departments = hrmsUtil.getDepartment(assignes, requestBody.getRequestInfo());
+        List<String> departments = requestMetrics.time(PGRConstants.PHASE_VALIDATE_DEPARTMENT,
+                () -> hrmsUtil.getDepartment(assignes, requestBody.getRequestInfo()));
 
-        JsonNode dataNode = mdmsData.getMdms().get(0).getData(); // Get the `data` JsonNode
+        JsonNode dataNode = serviceDef.getData(); // Get the `data` JsonNode
 
         String departmentServiceCode = null;
         if (dataNode != null && dataNode.has("ServiceCode")) {
@@ -0,0 +1,75 @@
+package digit.web.controllers;
+
+import digit.service.WorkflowService;
+import digit.util.ResponseInfoFactory;
+import digit.util.ServiceDefCatalogue;
+import digit.web.models.CacheResponse;
+import digit.web.models.RequestInfoWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import jakarta.validation.Valid;
+
+/**
+ * Administrative endpoints to drop cached master data after it was changed
+ * upstream, instead of waiting for the cache to expire.
+ */
+@Controller
+@RequestMapping("/v2/cache")
+public class CacheApiController {
+
+    @Autowired
+    private WorkflowService workflowService;
+
+    @Autowired
+    private ServiceDefCatalogue serviceDefCatalogue;
+
+    @Autowired
+    private ResponseInfoFactory responseInfoFactory;
+
+    /**
+     * Invalidates the cached workflow business service definitions.
+     *
+     * @param requestInfoWrapper The request information
+     * @param tenantId           The tenant to invalidate, all tenants when absent
+     * @return The invalidated cache wrapped in a ResponseEntity
+     */
+    @RequestMapping(value = "/businessservice/_invalidate", method = RequestMethod.POST)
+    public ResponseEntity<CacheResponse> businessServiceInvalidatePost(
+            @Valid @RequestBody RequestInfoWrapper requestInfoWrapper,
+            @RequestParam(value = "tenantId", required = false) String tenantId) {
+        workflowService.invalidateBusinessService(tenantId);
+        return new ResponseEntity<>(getResponse(requestInfoWrapper, "businessservice", tenantId), HttpStatus.OK);
+    }
+
+    /**
+     * Invalidates the cached MDMS service definition catalogue.
+     *
+     * @param requestInfoWrapper The request information
+     * @param tenantId           The tenant to invalidate, all tenants when absent
+     * @return The invalidated cache wrapped in a ResponseEntity
+     */
+    @RequestMapping(value = "/servicedef/_invalidate", method = RequestMethod.POST)
+    public ResponseEntity<CacheResponse> serviceDefInvalidatePost(
+            @Valid @RequestBody RequestInfoWrapper requestInfoWrapper,
+            @RequestParam(value = "tenantId", required = false) String tenantId) {
+        serviceDefCatalogue.invalidate(tenantId);
+        return new ResponseEntity<>(getResponse(requestInfoWrapper, "servicedef", tenantId), HttpStatus.OK);
+    }
+
+    private CacheResponse getResponse(RequestInfoWrapper requestInfoWrapper, String cache, String tenantId) {
+        return CacheResponse.builder()
+                .responseInfo(responseInfoFactory.createResponseInfoFromRequestInfo(
+                        requestInfoWrapper.getRequestInfo(), true))
+                .cache(cache)
+                .tenantId(tenantId)
+                .build();
+    }
+
+}
@@ -1,7 +1,12 @@
 package digit.web.controllers;
 
+import digit.service.DynamicDataService;
 import digit.service.PgrService;
+import digit.web.models.BulkServiceRequest;
+import digit.web.models.BulkServiceResponse;
 import digit.web.models.CountResponse;
+import digit.web.models.DynamicDataResponse;
+import digit.web.models.RequestInfoWrapper;
 import digit.web.models.SearchRequest;
 import digit.web.models.ServiceRequest;
 import digit.web.models.ServiceResponse;
@@ -12,6 +17,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import java.io.IOException;
 
 import jakarta.validation.Valid;
@@ -24,6 +30,9 @@ public class RequestApiController {
     @Autowired
     private PgrService pgrService;
 
+    @Autowired
+    private DynamicDataService dynamicDataService;
+
     /**
      * Creates a new service request and returns the response.
      *
@@ -40,6 +49,20 @@ public class RequestApiController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Creates many service requests and returns the outcome of each.
+     *
+     * @param request The services to create, with the request information.
+     * @return One result per service wrapped in a ResponseEntity.
+     */
+    @RequestMapping(value = "/_bulkcreate", method = RequestMethod.POST)
+    public ResponseEntity<BulkServiceResponse> requestsBulkCreatePost(@Valid @RequestBody BulkServiceRequest request) {
+        // Create the services and get the per service results
+        BulkServiceResponse response = pgrService.bulkCreate(request);
+        // Return the response
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * Searches for service requests based on provided criteria.
      *
@@ -90,4 +113,21 @@ public class RequestApiController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Returns the dashboard statistics of a tenant: the complaints resolved in the
+     * configured period and the average resolution time in days.
+     *
+     * @param requestInfoWrapper The request information
+     * @param tenantId           The tenant of the statistics
+     * @return The statistics wrapped in a ResponseEntity
+     */
+    @RequestMapping(value = "/_dynamicdata", method = RequestMethod.POST)
+    public ResponseEntity<DynamicDataResponse> requestsDynamicDataPost(
+            @Valid @RequestBody RequestInfoWrapper requestInfoWrapper,
+            @RequestParam(value = "tenantId") String tenantId) {
+        DynamicDataResponse response = dynamicDataService.getDynamicData(requestInfoWrapper.getRequestInfo(),
+                tenantId);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
 }
\ No newline at end of file
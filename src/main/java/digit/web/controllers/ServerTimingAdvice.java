@@ -0,0 +1,63 @@
+package digit.web.controllers;
+
+import digit.config.Configuration;
+import digit.config.PGRConstants;
+import digit.util.RequestMetrics;
+import digit.util.RequestTiming;
+import digit.web.models.BulkServiceResponse;
+import digit.web.models.CountResponse;
+import digit.web.models.ResponseTiming;
+import digit.web.models.ServiceResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the Server-Timing header to the responses of {@link RequestApiController}
+ * and, with pgr.server.timing.response.enabled, the same breakdown as "timing"
+ * in the body. The header is set here because the response is committed once
+ * the body is written.
+ */
+@ControllerAdvice(assignableTypes = RequestApiController.class)
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return Boolean.TRUE.equals(config.getServerTimingEnabled());
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        RequestTiming timing = requestMetrics.getTiming();
+        if (timing == null)
+            return body;
+
+        response.getHeaders().add(PGRConstants.SERVER_TIMING_HEADER, timing.toServerTiming());
+
+        if (Boolean.TRUE.equals(config.getServerTimingResponseEnabled())) {
+            ResponseTiming responseTiming = timing.toResponseTiming();
+            if (body instanceof ServiceResponse)
+                ((ServiceResponse) body).setTiming(responseTiming);
+            else if (body instanceof CountResponse)
+                ((CountResponse) body).setTiming(responseTiming);
+            else if (body instanceof BulkServiceResponse)
+                ((BulkServiceResponse) body).setTiming(responseTiming);
+        }
+        return body;
+    }
+
+}
@@ -0,0 +1,45 @@
+package digit.web.controllers;
+
+import digit.config.Configuration;
+import digit.util.RequestMetrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Starts the timing accumulator of the request when pgr.server.timing.enabled is
+ * set and drops it once the response is written, also when the request fails
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private Configuration config;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !Boolean.TRUE.equals(config.getServerTimingEnabled());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        requestMetrics.startTiming();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            requestMetrics.stopTiming();
+        }
+    }
+
+}
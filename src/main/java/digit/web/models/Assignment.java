@@ -0,0 +1,27 @@
+package digit.web.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Assignment of an HRMS employee to a department and designation
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Assignment {
+
+    @JsonProperty("department")
+    private String department;
+
+    @JsonProperty("designation")
+    private String designation;
+
+    @JsonProperty("isCurrentAssignment")
+    private Boolean isCurrentAssignment;
+
+}
@@ -0,0 +1,34 @@
+package digit.web.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one service of a bulk create. A failed item carries the error
+ * that the single create would have returned for it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult {
+
+    @JsonProperty("index")
+    private Integer index;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("PgrEntity")
+    private PGREntity pgrEntity;
+
+    @JsonProperty("errorCode")
+    private String errorCode;
+
+    @JsonProperty("errorMessage")
+    private String errorMessage;
+
+}
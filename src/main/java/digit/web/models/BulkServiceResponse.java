@@ -0,0 +1,32 @@
+package digit.web.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.egov.common.contract.response.ResponseInfo;
+
+import java.util.List;
+
+/**
+ * Response to a bulk create, with one result per requested service in request order
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkServiceResponse {
+
+    @JsonProperty("ResponseInfo")
+    private ResponseInfo responseInfo;
+
+    @JsonProperty("results")
+    private List<BulkItemResult> results;
+
+    @JsonProperty("timing")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ResponseTiming timing;
+
+}
@@ -1,5 +1,6 @@
 package digit.web.models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,4 +20,8 @@ public class CountResponse {
     @JsonProperty("count")
     private Integer count;
 
+    @JsonProperty("timing")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ResponseTiming timing;
+
 }
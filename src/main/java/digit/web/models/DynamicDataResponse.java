@@ -0,0 +1,33 @@
+package digit.web.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.egov.common.contract.response.ResponseInfo;
+
+/**
+ * Dashboard statistics of a tenant
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DynamicDataResponse {
+
+    @JsonProperty("ResponseInfo")
+    private ResponseInfo responseInfo;
+
+    @JsonProperty("tenantId")
+    private String tenantId;
+
+    // Complaints closed after resolution within egov.dynamicdata.period days
+    @JsonProperty("complaintsResolved")
+    private Long complaintsResolved;
+
+    // Average days from creation to closure over all resolved complaints
+    @JsonProperty("averageResolutionTime")
+    private Long averageResolutionTime;
+
+}
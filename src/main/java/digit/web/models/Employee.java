@@ -0,0 +1,29 @@
+package digit.web.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The part of an HRMS employee that PGR reads
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Employee {
+
+    @JsonProperty("uuid")
+    private String uuid;
+
+    @JsonProperty("tenantId")
+    private String tenantId;
+
+    @JsonProperty("assignments")
+    private List<Assignment> assignments;
+
+}
@@ -55,18 +55,33 @@ public class RequestSearchCriteria {
     @JsonProperty("slaDeltaMinLimit")
     private Long slaDeltaMinLimit;
 
+    @JsonProperty("breached")
+    private Boolean breached;
+
     @JsonProperty("limit")
     private Integer limit;
 
     @JsonProperty("offset")
     private Integer offset;
 
+    @JsonProperty("cursor")
+    private String cursor;
+
     @JsonIgnore
     private Set<String> userIds;
 
     @JsonIgnore
     private Boolean isPlainSearch;
 
+    @JsonIgnore
+    private String nextCursor;
+
+    @JsonIgnore
+    private Set<String> fields;
+
+    @JsonIgnore
+    private Set<String> expand;
+
     public enum SortOrder {
         ASC,
         DESC
@@ -87,4 +102,14 @@ public class RequestSearchCriteria {
                 && this.applicationStatus == null && this.ids == null && this.userIds == null && this.locality == null);
     }
 
+    /**
+     * Whether the given remote enrichment (citizen, workflow) is wanted. Without
+     * an explicit expand a full search gets every enrichment and a sparse one none.
+     */
+    public boolean isExpanded(String expansion) {
+        if (this.expand != null)
+            return this.expand.contains(expansion);
+        return this.fields == null;
+    }
+
 }
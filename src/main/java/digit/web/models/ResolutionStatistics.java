@@ -0,0 +1,30 @@
+package digit.web.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Complaints of a tenant closed after resolution. The totals are kept so the
+ * average resolution time can be updated when one more complaint is closed.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolutionStatistics {
+
+    // Closed within the configured period
+    @JsonProperty("resolvedInPeriod")
+    private long resolvedInPeriod;
+
+    @JsonProperty("resolvedTotal")
+    private long resolvedTotal;
+
+    // Sum of lastModifiedTime - createdTime in milliseconds
+    @JsonProperty("resolutionTimeTotal")
+    private long resolutionTimeTotal;
+
+}
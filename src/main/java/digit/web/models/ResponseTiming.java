@@ -0,0 +1,49 @@
+package digit.web.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Breakdown of the time a request spent, in milliseconds, returned when
+ * pgr.server.timing.response.enabled is set
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResponseTiming {
+
+    @JsonProperty("db")
+    private Double db;
+
+    @JsonProperty("user")
+    private Double user;
+
+    @JsonProperty("workflow")
+    private Double workflow;
+
+    @JsonProperty("mdms")
+    private Double mdms;
+
+    @JsonProperty("hrms")
+    private Double hrms;
+
+    @JsonProperty("idgen")
+    private Double idgen;
+
+    @JsonProperty("kafka")
+    private Double kafka;
+
+    @JsonProperty("total")
+    private Double total;
+
+    @JsonProperty("rowsScanned")
+    private Long rowsScanned;
+
+    @JsonProperty("remoteCalls")
+    private Long remoteCalls;
+
+}
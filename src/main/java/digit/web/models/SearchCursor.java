@@ -0,0 +1,31 @@
+package digit.web.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Decoded form of the opaque continuation cursor handed out by search. It
+ * carries the sort key, sort order and id of the last row of the previous page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchCursor {
+
+    @JsonProperty("sortBy")
+    private String sortBy;
+
+    @JsonProperty("sortOrder")
+    private String sortOrder;
+
+    @JsonProperty("value")
+    private Object value;
+
+    @JsonProperty("id")
+    private String id;
+
+}
@@ -4,6 +4,8 @@ import org.egov.common.contract.request.RequestInfo;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Set;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,4 +21,10 @@ public class SearchRequest {
 
     @JsonProperty("criteria")
     private RequestSearchCriteria criteria;
+
+    @JsonProperty("fields")
+    private Set<String> fields;
+
+    @JsonProperty("expand")
+    private Set<String> expand;
 }
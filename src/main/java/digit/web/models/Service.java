@@ -90,4 +90,7 @@ public class Service {
   @Valid
   private AuditDetails auditDetails = null;
 
+  @JsonProperty("slaDeadline")
+  private Long slaDeadline = null;
+
 }
@@ -3,6 +3,8 @@ package digit.web.models;
 import java.util.Objects;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.math.BigDecimal;
 import org.springframework.validation.annotation.Validated;
@@ -47,5 +49,12 @@ public class ServiceDef   {
           @Valid
                 private BigDecimal slaHours = null;
 
+        @JsonProperty("department")
+
+                private String department = null;
+
+        @JsonIgnore
+                private JsonNode data = null;
+
 
 }
@@ -1,6 +1,7 @@
 package digit.web.models;
 
 import java.util.Objects;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -34,6 +35,13 @@ public class ServiceResponse {
         @Valid
         private List<PGREntity> pgREntities = null;
 
+        @JsonProperty("nextCursor")
+        private String nextCursor = null;
+
+        @JsonProperty("timing")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private ResponseTiming timing = null;
+
         public ServiceResponse addPgREntitiesItem(PGREntity pgREntitiesItem) {
                 if (this.pgREntities == null) {
                         this.pgREntities = new ArrayList<>();
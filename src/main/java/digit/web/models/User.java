@@ -1,15 +1,18 @@
 package digit.web.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.egov.common.contract.request.Role;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
@@ -24,4 +27,17 @@ public class User {
     private String tenantId;
     private String uuid;
     private Boolean active;
+
+    // Read from user service responses only, never sent back to it
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private LocalDate dob;
+
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private LocalDateTime createdDate;
+
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private LocalDateTime lastModifiedDate;
+
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private LocalDateTime pwdExpiryDate;
 }
@@ -0,0 +1,5 @@
+-- Built concurrently so writes are not blocked, Flyway runs this migration outside a transaction. A build that
+-- fails leaves an invalid index behind, which must be dropped before the migration is repaired and re-run.
+
+-- Locality filter, carries parentid so the join back to the service stays in the index
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_eg_pgr_address_v2_locality ON eg_pgr_address_v2 (locality, parentid);
@@ -0,0 +1,8 @@
+-- Built concurrently so writes are not blocked, Flyway runs this migration outside a transaction. A build that
+-- fails leaves an invalid index behind, which must be dropped before the migration is repaired and re-run.
+
+-- Default listing: tenant filter ordered by createdtime with id as tie breaker, which also serves the seek cursor and
+-- date ranges within a tenant. text_pattern_ops still serves tenantid = ? and lets the state level search
+-- (tenantid LIKE 'pb%') use the same index outside the C collation.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_eg_pgr_service_v2_tenant_createdtime
+    ON eg_pgr_service_v2 (tenantid text_pattern_ops, createdtime DESC, id DESC);
@@ -0,0 +1,6 @@
+-- Built concurrently so writes are not blocked, Flyway runs this migration outside a transaction. A build that
+-- fails leaves an invalid index behind, which must be dropped before the migration is repaired and re-run.
+
+-- Inbox and dashboard filter on service code within a tenant
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_eg_pgr_service_v2_tenant_servicecode_createdtime
+    ON eg_pgr_service_v2 (tenantid, servicecode, createdtime DESC);
@@ -0,0 +1,5 @@
+-- Dashboard statistics aggregate the complaints of a tenant closed after resolution, filtered on lastmodifiedtime.
+-- Only those rows are indexed, and createdtime is carried so both aggregates are answered from the index alone.
+CREATE INDEX IF NOT EXISTS idx_eg_pgr_service_v2_resolved ON eg_pgr_service_v2 (tenantid, lastmodifiedtime)
+    INCLUDE (createdtime)
+    WHERE applicationstatus = 'CLOSEDAFTERRESOLUTION';
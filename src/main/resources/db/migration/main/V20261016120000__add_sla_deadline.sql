@@ -0,0 +1,4 @@
+-- SLA deadline of each complaint, createdtime plus the slaHours of its service code in MDMS, fixed at create time.
+-- Adding a nullable column without a default only touches the catalog. Older rows are backfilled in batches by
+-- SlaDeadlineBackfill, until then searches treat a null deadline as createdtime plus pgr.sla.default.hours.
+ALTER TABLE eg_pgr_service_v2 ADD COLUMN IF NOT EXISTS sla_deadline BIGINT;
@@ -0,0 +1,10 @@
+-- Built concurrently so writes are not blocked, Flyway runs this migration outside a transaction.
+
+-- Breached searches are range scans on the deadline of the open complaints of a tenant. The status list must
+-- match PGRConstants.PGR_OPEN_STATUSES, the planner uses the index only when the query repeats it.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_eg_pgr_service_v2_open_sladeadline ON eg_pgr_service_v2 (tenantid, sla_deadline)
+    WHERE applicationstatus IN ('PENDINGFORASSIGNMENT', 'PENDINGATLME', 'PENDINGFORREASSIGNMENT', 'PENDINGATSUPERVISOR');
+
+-- Rows still waiting for the backfill, which runs per tenant and service code, empty once it is done
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_eg_pgr_service_v2_sladeadline_missing ON eg_pgr_service_v2 (tenantid, servicecode)
+    WHERE sla_deadline IS NULL;
@@ -0,0 +1,232 @@
+package digit.kafka;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digit.config.Configuration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Appends, drains and recovers a spool in a temporary directory, with a mocked
+ * KafkaTemplate standing in for the broker. Segments are 1 MB, so records of a
+ * few hundred KB are enough to span several.
+ */
+class KafkaSpoolTest {
+
+    private static final String TOPIC = "save-pgr-topic";
+
+    private static final String PADDING = String.join("", Collections.nCopies(300000, "x"));
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    private final List<KafkaSpool> spools = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (KafkaSpool spool : spools)
+            spool.closeSpool();
+    }
+
+    @Test
+    void drainsRecordsInAppendOrder() throws Exception {
+        Broker broker = new Broker(Integer.MAX_VALUE);
+        KafkaSpool spool = open(directory, broker);
+
+        for (int i = 0; i < 100; i++)
+            spool.append(TOPIC, "pb.amritsar:PGR-1", record(i, false));
+
+        waitFor(() -> broker.sent.size() == 100);
+        assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()), broker.sent);
+        waitFor(() -> !spool.hasPending());
+    }
+
+    @Test
+    void resumesFromTheCheckpointAfterARestart() throws Exception {
+        // The broker takes two records and then goes down
+        Broker failing = new Broker(2);
+        KafkaSpool first = open(directory, failing);
+        for (int i = 0; i < 5; i++)
+            first.append(TOPIC, "key-" + i, record(i, false));
+        waitFor(() -> pending(first) == 3);
+        close(first);
+
+        Broker broker = new Broker(Integer.MAX_VALUE);
+        KafkaSpool second = open(directory, broker);
+        assertTrue(second.hasPending());
+
+        waitFor(() -> broker.sent.size() == 3);
+        assertEquals(Arrays.asList(2, 3, 4), broker.sent);
+        waitFor(() -> !second.hasPending());
+    }
+
+    @Test
+    void ignoresATornLastRecordOnRecovery() throws Exception {
+        KafkaSpool first = open(directory, new Broker(0));
+        for (int i = 0; i < 3; i++)
+            first.append(TOPIC, "key-" + i, record(i, false));
+        close(first);
+
+        // A crash while the next record was written: length and part of the payload, no valid crc
+        Path segment = getSegments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int end = findEnd(channel);
+            ByteBuffer torn = ByteBuffer.allocate(8 + 20);
+            torn.putInt(500).putInt(12345).put(new byte[20]).flip();
+            channel.write(torn, end);
+        }
+
+        Broker broker = new Broker(Integer.MAX_VALUE);
+        KafkaSpool second = open(directory, broker);
+        waitFor(() -> broker.sent.size() == 3);
+
+        // The next append takes the place of the torn record and is read normally
+        second.append(TOPIC, "key-3", record(3, false));
+        waitFor(() -> broker.sent.size() == 4);
+        assertEquals(Arrays.asList(0, 1, 2, 3), broker.sent);
+    }
+
+    @Test
+    void recoversAcrossSegments() throws Exception {
+        // Three records fit in a segment, the broker goes down after the first four
+        Broker failing = new Broker(4);
+        KafkaSpool first = open(directory, failing);
+        for (int i = 0; i < 8; i++)
+            first.append(TOPIC, "key-" + i, record(i, true));
+        waitFor(() -> pending(first) == 4);
+        close(first);
+
+        // The first segment was sent completely and removed
+        assertFalse(getSegments(directory).stream()
+                .anyMatch(path -> path.getFileName().toString().startsWith(String.format("%020d", 0))));
+
+        Broker broker = new Broker(Integer.MAX_VALUE);
+        KafkaSpool second = open(directory, broker);
+        waitFor(() -> broker.sent.size() == 4);
+        assertEquals(Arrays.asList(4, 5, 6, 7), broker.sent);
+        waitFor(() -> !second.hasPending());
+    }
+
+    private KafkaSpool open(Path directory, Broker broker) throws IOException {
+        Configuration config = new Configuration();
+        ReflectionTestUtils.setField(config, "kafkaSpoolEnabled", true);
+        ReflectionTestUtils.setField(config, "kafkaSpoolDir", directory.toString());
+        ReflectionTestUtils.setField(config, "kafkaSpoolSegmentSize", 1L);
+        ReflectionTestUtils.setField(config, "kafkaSpoolMaxSize", 16L);
+        ReflectionTestUtils.setField(config, "kafkaSpoolSync", false);
+        ReflectionTestUtils.setField(config, "kafkaSpoolDrainInterval", 10L);
+        ReflectionTestUtils.setField(config, "kafkaAckTimeout", 1000L);
+
+        KafkaSpool spool = new KafkaSpool();
+        ReflectionTestUtils.setField(spool, "kafkaTemplate", broker.template);
+        ReflectionTestUtils.setField(spool, "mapper", mapper);
+        ReflectionTestUtils.setField(spool, "config", config);
+        ReflectionTestUtils.setField(spool, "meterRegistry", new SimpleMeterRegistry());
+        spool.openSpool();
+        spools.add(spool);
+        return spool;
+    }
+
+    private void close(KafkaSpool spool) throws Exception {
+        spool.closeSpool();
+        spools.remove(spool);
+    }
+
+    // Records not yet sent, only counted down once the checkpoint is written
+    private static long pending(KafkaSpool spool) {
+        return ((AtomicLong) ReflectionTestUtils.getField(spool, "pendingRecords")).get();
+    }
+
+    private static Map<String, Object> record(int n, boolean large) {
+        return large ? Map.of("n", n, "padding", PADDING) : Map.of("n", n);
+    }
+
+    private static List<Path> getSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".spool")).sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // Walks the [length][crc][payload] records from the start of the segment to the first empty slot
+    private static int findEnd(FileChannel channel) throws IOException {
+        int position = 0;
+        ByteBuffer length = ByteBuffer.allocate(4);
+        while (true) {
+            length.clear();
+            channel.read(length, position);
+            length.flip();
+            int size = length.getInt();
+            if (size <= 0)
+                return position;
+            position += 8 + size;
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the spool");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Mocked broker that acknowledges the first records it is given and fails the
+     * rest, recording the "n" of every acknowledged record
+     */
+    private static class Broker {
+
+        private final List<Integer> sent = Collections.synchronizedList(new ArrayList<>());
+
+        private final KafkaTemplate<String, Object> template;
+
+        @SuppressWarnings("unchecked")
+        private Broker(int accepted) {
+            AtomicInteger remaining = new AtomicInteger(accepted);
+            template = mock(KafkaTemplate.class);
+            when(template.send(anyString(), nullable(String.class), any())).thenAnswer(invocation -> {
+                if (remaining.getAndUpdate(count -> Math.max(count - 1, 0)) == 0)
+                    return CompletableFuture.failedFuture(new IllegalStateException("Broker is down"));
+                sent.add(((JsonNode) invocation.getArgument(2)).get("n").asInt());
+                return CompletableFuture.completedFuture(null);
+            });
+        }
+
+    }
+
+}
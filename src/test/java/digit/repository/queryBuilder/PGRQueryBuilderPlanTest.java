@@ -0,0 +1,269 @@
+package digit.repository.queryBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digit.config.Configuration;
+import digit.config.ErrorConstants;
+import digit.repository.SlaDeadlineBackfill;
+import digit.util.SearchCursorUtil;
+import digit.web.models.RequestSearchCriteria;
+import digit.web.models.Service;
+import org.egov.common.contract.models.AuditDetails;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that every query shape generated by PGRQueryBuilder is served by an
+ * index on the columns it filters on. The migrations are applied to a scratch
+ * schema filled with synthetic complaints (200 tenants over 40 states, spread
+ * over six days) and analyzed, so the planner chooses with real statistics. Each
+ * query is explained and must read its table through an index scan whose Index
+ * Cond uses the filtered column, a full index scan in sort order does not count.
+ *
+ * The database is a PostgreSQL container, so the check needs Docker and only
+ * runs with the plancheck profile: mvn -Pplancheck test
+ */
+@Tag("plancheck")
+@Testcontainers
+class PGRQueryBuilderPlanTest {
+
+    private static final String SCHEMA = "pgr_plan_check";
+
+    private static final int ROWS = 200000;
+
+    private static final String TENANT_ID = "st00.c0";
+
+    private static final String STATE_TENANT_ID = "st00";
+
+    // Tenants st00.c0 to st39.c199, a complaint every 2.5 seconds going back from now, one service code in
+    // forty with a one hour SLA (so only those are breached) and the rest with fourteen days
+    private static final String INSERT_SERVICES = "INSERT INTO eg_pgr_service_v2 (id, tenantid, servicecode, "
+            + "servicerequestid, description, accountid, applicationstatus, source, createdby, createdtime, "
+            + "lastmodifiedby, lastmodifiedtime, sla_deadline) "
+            + "SELECT 'id-' || i, 'st' || lpad((i % 200 / 5)::text, 2, '0') || '.c' || (i % 200), "
+            + "'code' || (i / 3 % 40), 'PGR-' || i, 'complaint ' || i, 'uuid-' || (i % 20000), "
+            + "(ARRAY['PENDINGFORASSIGNMENT','PENDINGATLME','PENDINGFORREASSIGNMENT','PENDINGATSUPERVISOR',"
+            + "'RESOLVED','REJECTED','CLOSEDAFTERRESOLUTION','CLOSEDAFTERREJECTION'])[i / 7 % 8 + 1], 'web', "
+            + "'citizen', t.now - i * 2500, 'employee', t.now - i * 2500 + 3600000, "
+            + "t.now - i * 2500 + CASE WHEN i / 3 % 40 = 0 THEN 3600000 ELSE 1209600000 END "
+            + "FROM generate_series(1, " + ROWS + ") i, "
+            + "(SELECT (extract(epoch FROM now()) * 1000)::bigint AS now) t";
+
+    private static final String INSERT_ADDRESSES = "INSERT INTO eg_pgr_address_v2 (tenantid, id, parentid, "
+            + "locality, createdby, createdtime) "
+            + "SELECT tenantid, 'ads-' || id, id, 'LOC' || (substr(id, 4)::int / 13 % 300), createdby, createdtime "
+            + "FROM eg_pgr_service_v2";
+
+    private static final long HOUR = 3600000L;
+
+    private static final long DAY = 24 * HOUR;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    private static SingleConnectionDataSource dataSource;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private static PGRQueryBuilder queryBuilder;
+
+    private static SearchCursorUtil cursorUtil;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new SingleConnectionDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword(), true);
+
+        Flyway flyway = Flyway.configure().dataSource(dataSource).schemas(SCHEMA)
+                .locations("classpath:db/migration/main").cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("SET search_path TO " + SCHEMA);
+        jdbcTemplate.execute(INSERT_SERVICES);
+        jdbcTemplate.execute(INSERT_ADDRESSES);
+        jdbcTemplate.execute("VACUUM ANALYZE eg_pgr_service_v2");
+        jdbcTemplate.execute("VACUUM ANALYZE eg_pgr_address_v2");
+
+        cursorUtil = new SearchCursorUtil();
+        ReflectionTestUtils.setField(cursorUtil, "mapper", mapper);
+
+        Configuration config = new Configuration();
+        ReflectionTestUtils.setField(config, "numberOfDays", "30");
+        ReflectionTestUtils.setField(config, "defaultSlaHours", 336L);
+
+        // Every synthetic row has a deadline, as after the backfill
+        SlaDeadlineBackfill backfill = new SlaDeadlineBackfill();
+        ReflectionTestUtils.setField(backfill, "complete", true);
+
+        queryBuilder = new PGRQueryBuilder();
+        ReflectionTestUtils.setField(queryBuilder, "slaDeadlineBackfill", backfill);
+        ReflectionTestUtils.setField(queryBuilder, "config", config);
+        ReflectionTestUtils.setField(queryBuilder, "errorConstants", new ErrorConstants());
+        ReflectionTestUtils.setField(queryBuilder, "cursorUtil", cursorUtil);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (dataSource != null)
+            dataSource.destroy();
+    }
+
+    @Test
+    void searchQueriesUseIndexes() {
+        getShapes().forEach((name, shape) -> {
+            List<Object> preparedStmtList = new ArrayList<>();
+            String query = queryBuilder.getPGRSearchQuery(shape.criteria, preparedStmtList);
+            assertIndexCond("search " + name, query, preparedStmtList, shape.searchColumn);
+        });
+    }
+
+    @Test
+    void countQueriesUseIndexes() {
+        getShapes().forEach((name, shape) -> {
+            List<Object> preparedStmtList = new ArrayList<>();
+            String query = queryBuilder.getCountQuery(shape.criteria, preparedStmtList);
+            assertIndexCond("count " + name, query, preparedStmtList, shape.countColumn);
+        });
+    }
+
+    @Test
+    void resolutionStatisticsQueryUsesIndex() {
+        List<Object> preparedStmtList = new ArrayList<>();
+        String query = queryBuilder.getResolutionStatisticsQuery(TENANT_ID, preparedStmtList);
+        JsonNode plan = explain("resolution statistics", query, preparedStmtList);
+        List<JsonNode> scans = collectIndexScans(plan);
+        assertTrue(scans.stream().anyMatch(scan -> "idx_eg_pgr_service_v2_resolved"
+                .equals(scan.path("Index Name").asText())),
+                "idx_eg_pgr_service_v2_resolved not used for resolution statistics:\n" + plan);
+    }
+
+    private Map<String, Shape> getShapes() {
+        Map<String, Shape> shapes = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+
+        shapes.put("tenant", new Shape(criteria().build(), "tenantid"));
+        // Served by the text_pattern_ops tenant index, the prefix LIKE becomes a range on tenantid
+        shapes.put("state level tenant", new Shape(criteria().tenantId(STATE_TENANT_ID).build(), "tenantid"));
+        shapes.put("applicationStatus", new Shape(criteria()
+                .applicationStatus(Collections.singleton("PENDINGATLME")).build(), "applicationstatus"));
+        shapes.put("serviceCode", new Shape(criteria().serviceCode(Collections.singleton("code7")).build(),
+                "servicecode"));
+        shapes.put("locality", new Shape(criteria().locality(Collections.singleton("LOC7")).build(), "locality"));
+        shapes.put("accountId", new Shape(criteria().userIds(Collections.singleton("uuid-7")).build(),
+                "accountid"));
+        // Served by the primary key (tenantid, servicerequestid)
+        shapes.put("serviceRequestId", new Shape(criteria().serviceRequestId("PGR-7").build(),
+                "servicerequestid"));
+        shapes.put("ids", new Shape(criteria().ids(Collections.singleton("id-7")).build(), "id"));
+        shapes.put("date range", new Shape(criteria().fromDate(now - HOUR).toDate(now).build(), "createdtime"));
+        shapes.put("escalated", new Shape(criteria().slaDeltaMaxLimit(5 * DAY).build(), "createdtime"));
+        shapes.put("other", new Shape(criteria().slaDeltaMaxLimit(2 * DAY).slaDeltaMinLimit(DAY).build(),
+                "createdtime"));
+        shapes.put("breached", new Shape(criteria().breached(true).build(), "sla_deadline"));
+        shapes.put("breached in status", new Shape(criteria().breached(true)
+                .applicationStatus(Collections.singleton("PENDINGATLME")).build(), "sla_deadline"));
+        shapes.put("sort by locality", new Shape(criteria().sortBy(RequestSearchCriteria.SortBy.locality).build(),
+                "tenantid"));
+
+        // The count ignores the cursor, so it only filters on the tenant
+        RequestSearchCriteria seek = criteria().build();
+        Service last = Service.builder().id("id-34560")
+                .auditDetails(AuditDetails.builder().createdTime(now - DAY).build()).build();
+        seek.setCursor(cursorUtil.encode(seek, last));
+        shapes.put("cursor", new Shape(seek, "createdtime", "tenantid"));
+
+        return shapes;
+    }
+
+    private RequestSearchCriteria.RequestSearchCriteriaBuilder criteria() {
+        return RequestSearchCriteria.builder().tenantId(TENANT_ID).isPlainSearch(false).limit(100).offset(0);
+    }
+
+    /**
+     * Fails if any table is read by a sequential scan, or if no index scan has the
+     * column in its Index Cond
+     */
+    private void assertIndexCond(String shape, String query, List<Object> preparedStmtList, String column) {
+        JsonNode plan = explain(shape, query, preparedStmtList);
+
+        List<String> seqScans = new ArrayList<>();
+        collectSeqScans(plan, seqScans);
+        assertTrue(seqScans.isEmpty(), "Sequential scan on " + seqScans + " for " + shape + ":\n" + plan);
+
+        Pattern columnPattern = Pattern.compile("\\b" + column + "\\b", Pattern.CASE_INSENSITIVE);
+        assertTrue(collectIndexScans(plan).stream()
+                        .anyMatch(scan -> columnPattern.matcher(scan.path("Index Cond").asText()).find()),
+                "No index condition on " + column + " for " + shape + ":\n" + plan);
+    }
+
+    private JsonNode explain(String shape, String query, List<Object> preparedStmtList) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + query, String.class,
+                preparedStmtList.toArray());
+        try {
+            return mapper.readTree(plan);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to parse plan for " + shape, e);
+        }
+    }
+
+    private List<JsonNode> collectIndexScans(JsonNode plan) {
+        List<JsonNode> scans = new ArrayList<>();
+        collectIndexScans(plan, scans);
+        return scans;
+    }
+
+    private void collectIndexScans(JsonNode node, List<JsonNode> scans) {
+        if (node.isObject() && node.has("Index Name"))
+            scans.add(node);
+        node.forEach(child -> collectIndexScans(child, scans));
+    }
+
+    private void collectSeqScans(JsonNode node, List<String> seqScans) {
+        if (node.isObject() && "Seq Scan".equals(node.path("Node Type").asText()))
+            seqScans.add(node.path("Relation Name").asText());
+        node.forEach(child -> collectSeqScans(child, seqScans));
+    }
+
+    private static class Shape {
+
+        private final RequestSearchCriteria criteria;
+
+        private final String searchColumn;
+
+        private final String countColumn;
+
+        private Shape(RequestSearchCriteria criteria, String column) {
+            this(criteria, column, column);
+        }
+
+        private Shape(RequestSearchCriteria criteria, String searchColumn, String countColumn) {
+            this.criteria = criteria;
+            this.searchColumn = searchColumn;
+            this.countColumn = countColumn;
+        }
+
+    }
+
+}
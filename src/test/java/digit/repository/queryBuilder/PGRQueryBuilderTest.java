@@ -0,0 +1,139 @@
+package digit.repository.queryBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digit.config.Configuration;
+import digit.config.ErrorConstants;
+import digit.repository.SlaDeadlineBackfill;
+import digit.util.SearchCursorUtil;
+import digit.web.models.Address;
+import digit.web.models.Boundary;
+import digit.web.models.RequestSearchCriteria;
+import digit.web.models.Service;
+import org.egov.common.contract.models.AuditDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the keyset predicate and ordering generated for a search continuing
+ * from a cursor, and the breached filter
+ */
+class PGRQueryBuilderTest {
+
+    private PGRQueryBuilder queryBuilder;
+
+    private SearchCursorUtil cursorUtil;
+
+    private SlaDeadlineBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        cursorUtil = new SearchCursorUtil();
+        ReflectionTestUtils.setField(cursorUtil, "mapper", new ObjectMapper());
+
+        Configuration config = new Configuration();
+        ReflectionTestUtils.setField(config, "numberOfDays", "30");
+        ReflectionTestUtils.setField(config, "defaultSlaHours", 336L);
+
+        backfill = new SlaDeadlineBackfill();
+
+        queryBuilder = new PGRQueryBuilder();
+        ReflectionTestUtils.setField(queryBuilder, "slaDeadlineBackfill", backfill);
+        ReflectionTestUtils.setField(queryBuilder, "config", config);
+        ReflectionTestUtils.setField(queryBuilder, "errorConstants", new ErrorConstants());
+        ReflectionTestUtils.setField(queryBuilder, "cursorUtil", cursorUtil);
+    }
+
+    @Test
+    void seeksBeforeTheCursorWhenSortingDescending() {
+        RequestSearchCriteria criteria = criteria().build();
+        criteria.setCursor(cursorUtil.encode(criteria, service("id-9", 1700000000000L, "LOC1", "RESOLVED")));
+
+        List<Object> preparedStmtList = new ArrayList<>();
+        String query = normalize(queryBuilder.getPGRSearchQuery(criteria, preparedStmtList));
+
+        assertTrue(query.contains("(ser.createdtime, ser.id) < (?, ?)"), query);
+        assertTrue(query.contains("ORDER BY ser.createdtime DESC , ser.id DESC"), query);
+        assertFalse(query.contains("OFFSET"), query);
+        assertEquals(1700000000000L, preparedStmtList.get(preparedStmtList.size() - 3));
+        assertEquals("id-9", preparedStmtList.get(preparedStmtList.size() - 2));
+        assertEquals(100, preparedStmtList.get(preparedStmtList.size() - 1));
+    }
+
+    @Test
+    void seeksAfterTheCursorWhenSortingAscending() {
+        RequestSearchCriteria criteria = criteria().sortOrder(RequestSearchCriteria.SortOrder.ASC).build();
+        criteria.setCursor(cursorUtil.encode(criteria, service("id-9", 1700000000000L, "LOC1", "RESOLVED")));
+
+        String query = normalize(queryBuilder.getPGRSearchQuery(criteria, new ArrayList<>()));
+
+        assertTrue(query.contains("(ser.createdtime, ser.id) > (?, ?)"), query);
+        assertTrue(query.contains("ORDER BY ser.createdtime ASC , ser.id ASC"), query);
+    }
+
+    @Test
+    void seeksOnTheSameNullSafeKeyItSortsBy() {
+        RequestSearchCriteria criteria = criteria().sortBy(RequestSearchCriteria.SortBy.applicationStatus).build();
+        criteria.setCursor(cursorUtil.encode(criteria, service("id-9", 1L, "LOC1", null)));
+
+        List<Object> preparedStmtList = new ArrayList<>();
+        String query = normalize(queryBuilder.getPGRSearchQuery(criteria, preparedStmtList));
+
+        assertTrue(query.contains("(COALESCE(ser.applicationStatus, ''), ser.id) < (?, ?)"), query);
+        assertTrue(query.contains("ORDER BY COALESCE(ser.applicationStatus, '') DESC"), query);
+        assertEquals("", preparedStmtList.get(preparedStmtList.size() - 3));
+    }
+
+    @Test
+    void seeksOnLocalityWhenSortingByIt() {
+        RequestSearchCriteria criteria = criteria().sortBy(RequestSearchCriteria.SortBy.locality).build();
+        criteria.setCursor(cursorUtil.encode(criteria, service("id-9", 1L, "LOC7", "RESOLVED")));
+
+        List<Object> preparedStmtList = new ArrayList<>();
+        String query = normalize(queryBuilder.getPGRSearchQuery(criteria, preparedStmtList));
+
+        assertTrue(query.contains("(COALESCE(ads.locality, ''), ser.id) < (?, ?)"), query);
+        assertEquals("LOC7", preparedStmtList.get(preparedStmtList.size() - 3));
+    }
+
+    @Test
+    void limitsBreachedToOpenComplaintsOnTheDeadline() {
+        ReflectionTestUtils.setField(backfill, "complete", true);
+        List<Object> preparedStmtList = new ArrayList<>();
+        String query = normalize(queryBuilder.getPGRSearchQuery(criteria().breached(true).build(), preparedStmtList));
+
+        assertTrue(query.contains("ser.applicationstatus IN ('PENDINGFORASSIGNMENT', 'PENDINGATLME', "
+                + "'PENDINGFORREASSIGNMENT', 'PENDINGATSUPERVISOR') AND ser.sla_deadline < ?"), query);
+        assertFalse(query.contains("IS NULL"), query);
+    }
+
+    @Test
+    void takesMissingDeadlinesFromTheDefaultSlaUntilTheBackfillIsComplete() {
+        List<Object> preparedStmtList = new ArrayList<>();
+        String query = normalize(queryBuilder.getPGRSearchQuery(criteria().breached(false).build(), preparedStmtList));
+
+        assertTrue(query.contains("(ser.sla_deadline >= ? OR (ser.sla_deadline IS NULL AND ser.createdtime >= ?))"), query);
+    }
+
+    private RequestSearchCriteria.RequestSearchCriteriaBuilder criteria() {
+        return RequestSearchCriteria.builder().tenantId("pb.amritsar").isPlainSearch(false).limit(100).offset(0);
+    }
+
+    private static Service service(String id, long createdTime, String locality, String applicationStatus) {
+        return Service.builder().id(id).serviceRequestId("PGR-" + id).applicationStatus(applicationStatus)
+                .address(Address.builder().locality(Boundary.builder().code(locality).build()).build())
+                .auditDetails(AuditDetails.builder().createdTime(createdTime).build()).build();
+    }
+
+    private static String normalize(String query) {
+        return query.replaceAll("\\s+", " ");
+    }
+
+}
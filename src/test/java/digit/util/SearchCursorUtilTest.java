@@ -0,0 +1,105 @@
+package digit.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import digit.config.ErrorConstants;
+import digit.web.models.Address;
+import digit.web.models.Boundary;
+import digit.web.models.RequestSearchCriteria;
+import digit.web.models.SearchCursor;
+import digit.web.models.Service;
+import org.egov.common.contract.models.AuditDetails;
+import org.egov.tracer.model.CustomException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchCursorUtilTest {
+
+    private SearchCursorUtil cursorUtil;
+
+    @BeforeEach
+    void setUp() {
+        cursorUtil = new SearchCursorUtil();
+        ReflectionTestUtils.setField(cursorUtil, "mapper", new ObjectMapper());
+    }
+
+    @Test
+    void decodesTheCreatedTimeCursorItEncoded() {
+        RequestSearchCriteria criteria = RequestSearchCriteria.builder().build();
+        criteria.setCursor(cursorUtil.encode(criteria, service("id-1", 1700000000000L, "LOC1", "RESOLVED")));
+
+        SearchCursor cursor = cursorUtil.decode(criteria);
+        assertEquals("id-1", cursor.getId());
+        assertEquals(1700000000000L, cursor.getValue());
+        assertEquals("DESC", cursor.getSortOrder());
+    }
+
+    @Test
+    void decodesTheLocalityCursorItEncoded() {
+        RequestSearchCriteria criteria = RequestSearchCriteria.builder()
+                .sortBy(RequestSearchCriteria.SortBy.locality)
+                .sortOrder(RequestSearchCriteria.SortOrder.ASC).build();
+        criteria.setCursor(cursorUtil.encode(criteria, service("id-2", 1L, "LOC7", null)));
+
+        SearchCursor cursor = cursorUtil.decode(criteria);
+        assertEquals("LOC7", cursor.getValue());
+        assertEquals("ASC", cursor.getSortOrder());
+    }
+
+    @Test
+    void encodesAMissingSortKeyAsAnEmptyString() {
+        RequestSearchCriteria criteria = RequestSearchCriteria.builder()
+                .sortBy(RequestSearchCriteria.SortBy.applicationStatus).build();
+        criteria.setCursor(cursorUtil.encode(criteria, service("id-3", 1L, "LOC1", null)));
+
+        assertEquals("", cursorUtil.decode(criteria).getValue());
+    }
+
+    @Test
+    void rejectsACursorIssuedForTheOtherSortOrder() {
+        RequestSearchCriteria criteria = RequestSearchCriteria.builder().build();
+        String cursor = cursorUtil.encode(criteria, service("id-1", 1L, "LOC1", "RESOLVED"));
+
+        RequestSearchCriteria ascending = RequestSearchCriteria.builder()
+                .sortOrder(RequestSearchCriteria.SortOrder.ASC).cursor(cursor).build();
+        assertInvalid(ascending);
+    }
+
+    @Test
+    void rejectsACursorIssuedForAnotherSortBy() {
+        RequestSearchCriteria criteria = RequestSearchCriteria.builder().build();
+        String cursor = cursorUtil.encode(criteria, service("id-1", 1L, "LOC1", "RESOLVED"));
+
+        RequestSearchCriteria byLocality = RequestSearchCriteria.builder()
+                .sortBy(RequestSearchCriteria.SortBy.locality).cursor(cursor).build();
+        assertInvalid(byLocality);
+    }
+
+    @Test
+    void rejectsAMalformedCursor() {
+        assertInvalid(RequestSearchCriteria.builder().cursor("not a cursor").build());
+
+        String noId = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sortBy\":\"createdTime\",\"sortOrder\":\"DESC\",\"value\":1}"
+                        .getBytes(StandardCharsets.UTF_8));
+        assertInvalid(RequestSearchCriteria.builder().cursor(noId).build());
+    }
+
+    private void assertInvalid(RequestSearchCriteria criteria) {
+        CustomException e = assertThrows(CustomException.class, () -> cursorUtil.decode(criteria));
+        assertEquals(ErrorConstants.INVALID_SEARCH, e.getCode());
+    }
+
+    static Service service(String id, long createdTime, String locality, String applicationStatus) {
+        return Service.builder().id(id).serviceRequestId("PGR-" + id).applicationStatus(applicationStatus)
+                .address(Address.builder().locality(Boundary.builder().code(locality).build()).build())
+                .auditDetails(AuditDetails.builder().createdTime(createdTime).build()).build();
+    }
+
+}